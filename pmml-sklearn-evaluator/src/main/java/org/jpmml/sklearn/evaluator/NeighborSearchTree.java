@@ -0,0 +1,434 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn.evaluator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.dmg.pmml.Array;
+import org.dmg.pmml.Extension;
+import org.dmg.pmml.nearest_neighbor.TrainingInstances;
+
+/**
+ * <p>
+ * A KD-tree or ball tree based k-nearest neighbors search,
+ * which is restored from the <code>search_tree</code> extension of the <code>TrainingInstances</code> element.
+ * </p>
+ *
+ * <p>
+ * Subtrees are skipped when the lower bound of their distance to the query point
+ * is not smaller than the distance to the k-th nearest neighbor found so far.
+ * </p>
+ *
+ * <p>
+ * JPMML-Evaluator scores <code>NearestNeighborModel</code> elements by scanning all training instances,
+ * and does not provide an extension point for replacing that scan.
+ * Custom evaluators can use this class as follows:
+ * </p>
+ * <pre>
+ * NeighborSearchTree searchTree = NeighborSearchTree.parse(nearestNeighborModel.getTrainingInstances());
+ * if(searchTree != null){
+ *   // The rows of the TrainingInstances element, as transformed feature vectors
+ *   double[][] data = ...;
+ *   int[] rows = searchTree.query(data, x, nearestNeighborModel.getNumberOfNeighbors(), p);
+ * }
+ * </pre>
+ */
+public class NeighborSearchTree {
+
+	private boolean kdTree = false;
+
+	private int[] idxArray = null;
+
+	private int[] idxStart = null;
+
+	private int[] idxEnd = null;
+
+	private int[] isLeaf = null;
+
+	private double[] radius = null;
+
+	private double[] nodeBounds = null;
+
+	private int numberOfNodes = 0;
+
+	private int numberOfFeatures = 0;
+
+
+	public NeighborSearchTree(String kind, int[] idxArray, int[] idxStart, int[] idxEnd, int[] isLeaf, double[] radius, double[] nodeBounds){
+
+		switch(kind){
+			case NeighborSearchTree.KIND_KD_TREE:
+				this.kdTree = true;
+				break;
+			case NeighborSearchTree.KIND_BALL_TREE:
+				this.kdTree = false;
+				break;
+			default:
+				throw new IllegalArgumentException(kind);
+		}
+
+		this.idxArray = Objects.requireNonNull(idxArray);
+		this.idxStart = Objects.requireNonNull(idxStart);
+		this.idxEnd = Objects.requireNonNull(idxEnd);
+		this.isLeaf = Objects.requireNonNull(isLeaf);
+		this.radius = Objects.requireNonNull(radius);
+		this.nodeBounds = Objects.requireNonNull(nodeBounds);
+
+		this.numberOfNodes = idxStart.length;
+		this.numberOfFeatures = nodeBounds.length / ((this.kdTree ? 2 : 1) * this.numberOfNodes);
+	}
+
+	/**
+	 * @param data Training instances, in the order of the <code>TrainingInstances</code> element.
+	 * @param x The query point.
+	 * @param k The number of neighbors.
+	 * @param p The power of the Minkowski distance. Use <code>1</code> for city block distance, and <code>2</code> for Euclidean distance.
+	 * KD-tree bounds are valid for any power.
+	 * Ball tree radii are measured using the distance that the tree was fitted with, so the power must match it.
+	 *
+	 * @return The row indices of the <code>k</code> nearest training instances, nearest first.
+	 */
+	public int[] query(double[][] data, double[] x, int k, double p){
+
+		if(x.length != this.numberOfFeatures){
+			throw new IllegalArgumentException("Expected " + this.numberOfFeatures + " features, got " + x.length);
+		} // End if
+
+		if(k < 1){
+			throw new IllegalArgumentException();
+		}
+
+		k = Math.min(k, this.idxArray.length);
+
+		// Reduced distances (ie. without the final root operation) in ascending order
+		double[] neighborDistances = new double[k];
+		int[] neighborIndices = new int[k];
+
+		Arrays.fill(neighborDistances, Double.POSITIVE_INFINITY);
+		Arrays.fill(neighborIndices, -1);
+
+		int capacity = 64;
+
+		int[] stackNodes = new int[capacity];
+		double[] stackBounds = new double[capacity];
+
+		int size = 0;
+
+		stackNodes[size] = 0;
+		stackBounds[size] = minReducedDistance(0, x, p);
+
+		size++;
+
+		while(size > 0){
+			size--;
+
+			int node = stackNodes[size];
+			double bound = stackBounds[size];
+
+			if(bound >= neighborDistances[k - 1]){
+				continue;
+			} // End if
+
+			if(this.isLeaf[node] != 0){
+
+				for(int i = this.idxStart[node]; i < this.idxEnd[node]; i++){
+					int index = this.idxArray[i];
+
+					double distance = reducedDistance(data[index], x, p);
+
+					if(distance < neighborDistances[k - 1]){
+						insert(neighborDistances, neighborIndices, distance, index);
+					}
+				}
+
+				continue;
+			}
+
+			int leftNode = (2 * node) + 1;
+			int rightNode = (2 * node) + 2;
+
+			double leftBound = minReducedDistance(leftNode, x, p);
+			double rightBound = minReducedDistance(rightNode, x, p);
+
+			if((size + 2) > capacity){
+				capacity *= 2;
+
+				stackNodes = Arrays.copyOf(stackNodes, capacity);
+				stackBounds = Arrays.copyOf(stackBounds, capacity);
+			}
+
+			// Push the farther child first, so that the nearer child is popped first
+			if(leftBound <= rightBound){
+				stackNodes[size] = rightNode;
+				stackBounds[size] = rightBound;
+				size++;
+
+				stackNodes[size] = leftNode;
+				stackBounds[size] = leftBound;
+				size++;
+			} else
+
+			{
+				stackNodes[size] = leftNode;
+				stackBounds[size] = leftBound;
+				size++;
+
+				stackNodes[size] = rightNode;
+				stackBounds[size] = rightBound;
+				size++;
+			}
+		}
+
+		return neighborIndices;
+	}
+
+	private double minReducedDistance(int node, double[] x, double p){
+		double[] nodeBounds = this.nodeBounds;
+
+		int numberOfFeatures = this.numberOfFeatures;
+
+		if(this.kdTree){
+			int lowerOffset = node * numberOfFeatures;
+			int upperOffset = (this.numberOfNodes + node) * numberOfFeatures;
+
+			double result = 0d;
+
+			for(int i = 0; i < numberOfFeatures; i++){
+				double lower = nodeBounds[lowerOffset + i] - x[i];
+				double upper = x[i] - nodeBounds[upperOffset + i];
+
+				double delta = Math.max(Math.max(lower, upper), 0d);
+
+				result += pow(delta, p);
+			}
+
+			return result;
+		} else
+
+		{
+			int centroidOffset = node * numberOfFeatures;
+
+			double result = 0d;
+
+			for(int i = 0; i < numberOfFeatures; i++){
+				double delta = Math.abs(x[i] - nodeBounds[centroidOffset + i]);
+
+				result += pow(delta, p);
+			}
+
+			double distance = Math.max(root(result, p) - this.radius[node], 0d);
+
+			return pow(distance, p);
+		}
+	}
+
+	static
+	private double reducedDistance(double[] y, double[] x, double p){
+		double result = 0d;
+
+		for(int i = 0; i < x.length; i++){
+			double delta = Math.abs(x[i] - y[i]);
+
+			result += pow(delta, p);
+		}
+
+		return result;
+	}
+
+	static
+	private void insert(double[] distances, int[] indices, double distance, int index){
+		int i = distances.length - 1;
+
+		for(; i > 0 && distances[i - 1] > distance; i--){
+			distances[i] = distances[i - 1];
+			indices[i] = indices[i - 1];
+		}
+
+		distances[i] = distance;
+		indices[i] = index;
+	}
+
+	static
+	private double pow(double value, double p){
+
+		if(p == 1d){
+			return value;
+		} else
+
+		if(p == 2d){
+			return value * value;
+		}
+
+		return Math.pow(value, p);
+	}
+
+	static
+	private double root(double value, double p){
+
+		if(p == 1d){
+			return value;
+		} else
+
+		if(p == 2d){
+			return Math.sqrt(value);
+		}
+
+		return Math.pow(value, 1d / p);
+	}
+
+	/**
+	 * @return The search tree, or <code>null</code> if the <code>TrainingInstances</code> element does not have a <code>search_tree</code> extension.
+	 */
+	static
+	public NeighborSearchTree parse(TrainingInstances trainingInstances){
+
+		if(!trainingInstances.hasExtensions()){
+			return null;
+		}
+
+		List<Extension> extensions = trainingInstances.getExtensions();
+		for(Extension extension : extensions){
+
+			if(Objects.equals(NeighborSearchTree.EXTENSION_SEARCH_TREE, extension.getName())){
+				return parse(extension);
+			}
+		}
+
+		return null;
+	}
+
+	static
+	public NeighborSearchTree parse(Extension extension){
+		String kind = extension.getValue();
+
+		int[] idxArray = null;
+		int[] idxStart = null;
+		int[] idxEnd = null;
+		int[] isLeaf = null;
+		double[] radius = null;
+		double[] nodeBounds = null;
+
+		List<?> content = extension.getContent();
+		for(Object object : content){
+
+			if(!(object instanceof Extension)){
+				continue;
+			}
+
+			Extension arrayExtension = (Extension)object;
+
+			String name = arrayExtension.getName();
+			Array array = getArray(arrayExtension);
+
+			switch(name){
+				case "idx_array":
+					idxArray = toIntArray(array);
+					break;
+				case "idx_start":
+					idxStart = toIntArray(array);
+					break;
+				case "idx_end":
+					idxEnd = toIntArray(array);
+					break;
+				case "is_leaf":
+					isLeaf = toIntArray(array);
+					break;
+				case "radius":
+					radius = toDoubleArray(array);
+					break;
+				case "node_bounds":
+					nodeBounds = toDoubleArray(array);
+					break;
+				default:
+					break;
+			}
+		}
+
+		return new NeighborSearchTree(kind, idxArray, idxStart, idxEnd, isLeaf, radius, nodeBounds);
+	}
+
+	static
+	private Array getArray(Extension extension){
+		List<?> content = extension.getContent();
+
+		for(Object object : content){
+
+			if(object instanceof Array){
+				return (Array)object;
+			}
+		}
+
+		throw new IllegalArgumentException("Extension " + extension.getName() + " does not contain an array");
+	}
+
+	static
+	private int[] toIntArray(Array array){
+		String[] tokens = tokenize(array);
+
+		int[] result = new int[tokens.length];
+
+		for(int i = 0; i < tokens.length; i++){
+			result[i] = Integer.parseInt(tokens[i]);
+		}
+
+		return result;
+	}
+
+	static
+	private double[] toDoubleArray(Array array){
+		String[] tokens = tokenize(array);
+
+		double[] result = new double[tokens.length];
+
+		for(int i = 0; i < tokens.length; i++){
+			result[i] = Double.parseDouble(tokens[i]);
+		}
+
+		return result;
+	}
+
+	static
+	private String[] tokenize(Array array){
+		Object value = array.getValue();
+
+		// Arrays that have been constructed in memory
+		if(value instanceof List){
+			List<?> values = (List<?>)value;
+
+			return values.stream()
+				.map(String::valueOf)
+				.toArray(String[]::new);
+		}
+
+		// Arrays that have been unmarshalled from a PMML document
+		String string = ((String)value).trim();
+		if(string.isEmpty()){
+			return new String[0];
+		}
+
+		return string.split("\\s+");
+	}
+
+	public static final String EXTENSION_SEARCH_TREE = "search_tree";
+
+	private static final String KIND_BALL_TREE = "ball_tree";
+	private static final String KIND_KD_TREE = "kd_tree";
+}
@@ -25,6 +25,7 @@ import java.util.function.Predicate;
 
 import org.jpmml.evaluator.Function;
 import org.jpmml.evaluator.FunctionRegistry;
+import org.jpmml.sklearn.evaluator.functions.TermFrequency;
 
 /**
  * @see FunctionRegistry
@@ -56,5 +57,5 @@ public class SkLearnFunctionRegistry {
 	}
 
 	private static final Map<String, Function> functions = Collections.emptyMap();
-	private static final Map<String, Class<? extends Function>> functionClazzes = Collections.emptyMap();
+	private static final Map<String, Class<? extends Function>> functionClazzes = Collections.singletonMap(TermFrequency.class.getName(), TermFrequency.class);
 }
\ No newline at end of file
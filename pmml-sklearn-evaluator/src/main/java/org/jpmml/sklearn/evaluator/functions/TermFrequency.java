@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn.evaluator.functions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jpmml.evaluator.FieldValue;
+import org.jpmml.evaluator.FieldValueUtil;
+import org.jpmml.evaluator.FieldValues;
+import org.jpmml.evaluator.TypeInfos;
+import org.jpmml.evaluator.functions.AbstractFunction;
+
+/**
+ * <p>
+ * A term frequency function, which is a drop-in replacement for a <code>TextIndex</code> element.
+ * </p>
+ *
+ * <p>
+ * Arguments are the document, the term, the tokenization mode, the tokenization regex and the binary flag.
+ * In "match" mode, tokens are regex matches.
+ * In "split" mode, tokens are separated by regex matches, and stripped of leading and trailing punctuation.
+ * Tokens are compared case-insensitively.
+ * </p>
+ *
+ * <p>
+ * A vectorizer invokes this function once per vocabulary term, always with the same document.
+ * The document is tokenized on the first invocation, and its n-gram counts are memorized per thread,
+ * so that every subsequent invocation is a hash table lookup.
+ * </p>
+ *
+ * <p>
+ * The memory is keyed by document identity plus tokenizer (ie. mode and regex), and holds a few most recently used documents,
+ * so that vectorizers that are applied to different columns, or to the same column with different tokenizers, can interleave their invocations.
+ * </p>
+ */
+public class TermFrequency extends AbstractFunction {
+
+	public TermFrequency(){
+		this(TermFrequency.class.getName());
+	}
+
+	public TermFrequency(String name){
+		super(name);
+	}
+
+	@Override
+	public FieldValue evaluate(List<FieldValue> arguments){
+		checkFixedArityArguments(arguments, 5);
+
+		FieldValue document = arguments.get(0);
+		FieldValue term = arguments.get(1);
+
+		if(FieldValueUtil.isMissing(document) || FieldValueUtil.isMissing(term)){
+			return FieldValues.MISSING_VALUE;
+		}
+
+		String mode = (arguments.get(2)).asString();
+		String regex = (arguments.get(3)).asString();
+		Boolean binary = (arguments.get(4)).asBoolean();
+
+		int count = evaluate(document.asString(), term.asString(), mode, regex, binary);
+
+		return FieldValueUtil.create(TypeInfos.CONTINUOUS_INTEGER, count);
+	}
+
+	static
+	public int evaluate(String document, String term, String mode, String regex, boolean binary){
+		Cache cache = TermFrequency.caches.get();
+
+		Terms terms = cache.getTerms(mode, regex);
+
+		String termKey = terms.termKeys.get(term);
+		if(termKey == null){
+			List<String> termTokens = tokenize(term, mode, regex);
+
+			termKey = String.join(TermFrequency.SEPARATOR, termTokens);
+
+			terms.termKeys.put(term, termKey);
+			terms.termLengths.put(term, termTokens.size());
+		}
+
+		int length = terms.termLengths.get(term);
+		if(length == 0){
+			return 0;
+		}
+
+		Document tokenizedDocument = cache.getDocument(document, mode, regex);
+
+		Map<String, Integer> counts = tokenizedDocument.getCounts(length);
+
+		Integer count = counts.get(termKey);
+		if(count == null){
+			return 0;
+		}
+
+		return binary ? 1 : count;
+	}
+
+	static
+	private List<String> tokenize(String string, String mode, String regex){
+		Pattern pattern = TermFrequency.patterns.computeIfAbsent(regex, Pattern::compile);
+
+		List<String> result = new ArrayList<>();
+
+		switch(mode){
+			case TermFrequency.MODE_MATCH:
+				{
+					Matcher matcher = pattern.matcher(string);
+
+					while(matcher.find()){
+						result.add(normalize(matcher.group()));
+					}
+				}
+				break;
+			case TermFrequency.MODE_SPLIT:
+				{
+					String[] tokens = pattern.split(string);
+
+					for(String token : tokens){
+						token = TermFrequency.PUNCTUATION.matcher(token).replaceAll("");
+
+						if(!token.isEmpty()){
+							result.add(normalize(token));
+						}
+					}
+				}
+				break;
+			default:
+				throw new IllegalArgumentException(mode);
+		}
+
+		return result;
+	}
+
+	static
+	private String normalize(String token){
+		return token.toLowerCase(Locale.ROOT);
+	}
+
+	static
+	private class Cache {
+
+		private Map<String, Map<String, Terms>> terms = new HashMap<>();
+
+		private Map<DocumentKey, Document> documents = new LRUMap<>(TermFrequency.CACHE_SIZE);
+
+		/**
+		 * The key of the most recently used document.
+		 * Consecutive invocations for the same document skip the hash table lookup.
+		 */
+		private DocumentKey lastKey = null;
+
+		private Document lastDocument = null;
+
+
+		private Terms getTerms(String mode, String regex){
+			Map<String, Terms> modeTerms = this.terms.computeIfAbsent(mode, key -> new LRUMap<>(TermFrequency.CACHE_SIZE));
+
+			return modeTerms.computeIfAbsent(regex, key -> new Terms());
+		}
+
+		private Document getDocument(String document, String mode, String regex){
+			DocumentKey lastKey = this.lastKey;
+
+			if(lastKey != null && lastKey.matches(document, mode, regex)){
+				return this.lastDocument;
+			}
+
+			DocumentKey key = new DocumentKey(document, mode, regex);
+
+			Document result = this.documents.get(key);
+			if(result == null){
+				result = new Document(tokenize(document, mode, regex));
+
+				this.documents.put(key, result);
+			}
+
+			this.lastKey = key;
+			this.lastDocument = result;
+
+			return result;
+		}
+	}
+
+	static
+	private class Terms {
+
+		private Map<String, String> termKeys = new HashMap<>();
+
+		private Map<String, Integer> termLengths = new HashMap<>();
+	}
+
+	static
+	private class Document {
+
+		private List<String> tokens = null;
+
+		private Map<Integer, Map<String, Integer>> counts = new HashMap<>();
+
+
+		private Document(List<String> tokens){
+			this.tokens = tokens;
+		}
+
+		private Map<String, Integer> getCounts(int length){
+			Map<String, Integer> result = this.counts.get(length);
+
+			if(result == null){
+				result = new HashMap<>();
+
+				List<String> tokens = this.tokens;
+
+				for(int i = 0; i + length <= tokens.size(); i++){
+					String key = String.join(TermFrequency.SEPARATOR, tokens.subList(i, i + length));
+
+					result.merge(key, 1, Integer::sum);
+				}
+
+				this.counts.put(length, result);
+			}
+
+			return result;
+		}
+	}
+
+	/**
+	 * <p>
+	 * Compares documents by identity, so that a lookup does not hash or compare document contents.
+	 * The key holds a strong reference to the document, so its identity cannot be reused while it is memorized.
+	 * </p>
+	 */
+	static
+	private class DocumentKey {
+
+		private String document = null;
+
+		private String mode = null;
+
+		private String regex = null;
+
+
+		private DocumentKey(String document, String mode, String regex){
+			this.document = document;
+			this.mode = mode;
+			this.regex = regex;
+		}
+
+		private boolean matches(String document, String mode, String regex){
+			return (this.document == document) && Objects.equals(this.mode, mode) && Objects.equals(this.regex, regex);
+		}
+
+		@Override
+		public int hashCode(){
+			return (31 * System.identityHashCode(this.document)) + Objects.hash(this.mode, this.regex);
+		}
+
+		@Override
+		public boolean equals(Object object){
+
+			if(object instanceof DocumentKey){
+				DocumentKey that = (DocumentKey)object;
+
+				return matches(that.document, that.mode, that.regex);
+			}
+
+			return false;
+		}
+	}
+
+	static
+	private class LRUMap<K, V> extends LinkedHashMap<K, V> {
+
+		private int maxSize = 0;
+
+
+		private LRUMap(int maxSize){
+			super(16, 0.75f, true);
+
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K, V> entry){
+			return size() > this.maxSize;
+		}
+	}
+
+	private static final ThreadLocal<Cache> caches = ThreadLocal.withInitial(Cache::new);
+
+	private static final ConcurrentMap<String, Pattern> patterns = new ConcurrentHashMap<>();
+
+	private static final Pattern PUNCTUATION = Pattern.compile("^\\p{Punct}+|\\p{Punct}+$");
+
+	private static final String SEPARATOR = "\u0000";
+
+	private static final int CACHE_SIZE = 8;
+
+	private static final String MODE_MATCH = "match";
+	private static final String MODE_SPLIT = "split";
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn.evaluator;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class NeighborSearchTreeTest {
+
+	@Test
+	public void queryKDTree(){
+		double[][] data = createData(new Random(42L), 500, 3);
+
+		// Box bounds are valid for all Minkowski distances
+		NeighborSearchTree searchTree = build(data, 10, true, 2d);
+
+		for(double p : new double[]{1d, 2d, 3d}){
+			checkQuery(searchTree, data, p);
+		}
+	}
+
+	@Test
+	public void queryBallTree(){
+		double[][] data = createData(new Random(42L), 500, 3);
+
+		// Ball radii are valid for the fit-time Minkowski distance only
+		for(double p : new double[]{1d, 2d, 3d}){
+			NeighborSearchTree searchTree = build(data, 10, false, p);
+
+			checkQuery(searchTree, data, p);
+		}
+	}
+
+	@Test
+	public void queryDegenerateTree(){
+		double[][] data = createData(new Random(42L), 7, 2);
+
+		// A single leaf node
+		NeighborSearchTree searchTree = build(data, 40, true, 2d);
+
+		checkQuery(searchTree, data, 2d);
+	}
+
+	static
+	private void checkQuery(NeighborSearchTree searchTree, double[][] data, double p){
+		Random random = new Random(13L);
+
+		int numberOfFeatures = data[0].length;
+
+		for(int i = 0; i < 100; i++){
+			double[] x = new double[numberOfFeatures];
+
+			for(int j = 0; j < numberOfFeatures; j++){
+				x[j] = (random.nextDouble() * 12d) - 6d;
+			}
+
+			for(int k : new int[]{1, 3, 10}){
+				assertArrayEquals(bruteForceQuery(data, x, k, p), searchTree.query(data, x, k, p));
+			}
+		}
+	}
+
+	static
+	private int[] bruteForceQuery(double[][] data, double[] x, int k, double p){
+		double[] distances = new double[data.length];
+
+		for(int i = 0; i < data.length; i++){
+			distances[i] = distance(data[i], x, p);
+		}
+
+		return IntStream.range(0, data.length)
+			.boxed()
+			.sorted(Comparator.comparingDouble(i -> distances[i]))
+			.limit(Math.min(k, data.length))
+			.mapToInt(Integer::intValue)
+			.toArray();
+	}
+
+	static
+	private double distance(double[] left, double[] right, double p){
+		double result = 0d;
+
+		for(int i = 0; i < left.length; i++){
+			result += Math.pow(Math.abs(left[i] - right[i]), p);
+		}
+
+		return Math.pow(result, 1d / p);
+	}
+
+	static
+	private double[][] createData(Random random, int rows, int columns){
+		double[][] result = new double[rows][columns];
+
+		for(int i = 0; i < rows; i++){
+
+			for(int j = 0; j < columns; j++){
+				result[i][j] = random.nextGaussian() * (j + 1);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Builds a search tree the way Scikit-Learn's <code>BinaryTree._recursive_build</code> method does.
+	 * Nodes are laid out as a complete binary tree.
+	 * Split nodes partition their instances at the median along the dimension of maximum spread.
+	 * </p>
+	 */
+	static
+	private NeighborSearchTree build(double[][] data, int leafSize, boolean kdTree, double p){
+		int rows = data.length;
+		int columns = data[0].length;
+
+		int levels = 1 + (int)Math.floor(Math.log(Math.max(1d, (rows - 1d) / leafSize)) / Math.log(2d));
+		int nodes = (1 << levels) - 1;
+
+		Integer[] idxArray = IntStream.range(0, rows).boxed().toArray(Integer[]::new);
+
+		int[] idxStart = new int[nodes];
+		int[] idxEnd = new int[nodes];
+		int[] isLeaf = new int[nodes];
+		double[] radius = new double[nodes];
+		double[] nodeBounds = new double[(kdTree ? 2 : 1) * nodes * columns];
+
+		idxStart[0] = 0;
+		idxEnd[0] = rows;
+
+		for(int node = 0; node < nodes; node++){
+			int start = idxStart[node];
+			int end = idxEnd[node];
+
+			if(kdTree){
+
+				for(int j = 0; j < columns; j++){
+					double min = Double.POSITIVE_INFINITY;
+					double max = Double.NEGATIVE_INFINITY;
+
+					for(int i = start; i < end; i++){
+						min = Math.min(min, data[idxArray[i]][j]);
+						max = Math.max(max, data[idxArray[i]][j]);
+					}
+
+					nodeBounds[node * columns + j] = min;
+					nodeBounds[(nodes + node) * columns + j] = max;
+				}
+			} else
+
+			{
+				double[] centroid = new double[columns];
+
+				for(int i = start; i < end; i++){
+
+					for(int j = 0; j < columns; j++){
+						centroid[j] += data[idxArray[i]][j] / (end - start);
+					}
+				}
+
+				for(int i = start; i < end; i++){
+					radius[node] = Math.max(radius[node], distance(data[idxArray[i]], centroid, p));
+				}
+
+				System.arraycopy(centroid, 0, nodeBounds, node * columns, columns);
+			} // End if
+
+			if((2 * node + 1) >= nodes || (end - start) < 2){
+				isLeaf[node] = 1;
+
+				continue;
+			}
+
+			int splitDim = 0;
+			double maxSpread = -1d;
+
+			for(int j = 0; j < columns; j++){
+				double min = Double.POSITIVE_INFINITY;
+				double max = Double.NEGATIVE_INFINITY;
+
+				for(int i = start; i < end; i++){
+					min = Math.min(min, data[idxArray[i]][j]);
+					max = Math.max(max, data[idxArray[i]][j]);
+				}
+
+				if((max - min) > maxSpread){
+					splitDim = j;
+					maxSpread = (max - min);
+				}
+			}
+
+			int dim = splitDim;
+
+			Arrays.sort(idxArray, start, end, Comparator.comparingDouble(i -> data[i][dim]));
+
+			int mid = start + (end - start) / 2;
+
+			idxStart[2 * node + 1] = start;
+			idxEnd[2 * node + 1] = mid;
+
+			idxStart[2 * node + 2] = mid;
+			idxEnd[2 * node + 2] = end;
+		}
+
+		int[] idx = Arrays.stream(idxArray)
+			.mapToInt(Integer::intValue)
+			.toArray();
+
+		return new NeighborSearchTree(kdTree ? "kd_tree" : "ball_tree", idx, idxStart, idxEnd, isLeaf, radius, nodeBounds);
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn.evaluator.functions;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.dmg.pmml.FieldRef;
+import org.dmg.pmml.TextIndex;
+import org.jpmml.evaluator.EvaluationContext;
+import org.jpmml.evaluator.ExpressionUtil;
+import org.jpmml.evaluator.FieldValue;
+import org.jpmml.evaluator.VirtualEvaluationContext;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TermFrequencyTest {
+
+	@Test
+	public void match(){
+		TextIndex textIndex = new TextIndex("document", new FieldRef("term"))
+			.setTokenize(Boolean.TRUE)
+			.setWordRE(TermFrequencyTest.WORD_RE);
+
+		checkEvaluate(textIndex, "match", TermFrequencyTest.WORD_RE);
+	}
+
+	@Test
+	public void split(){
+		TextIndex textIndex = new TextIndex("document", new FieldRef("term"))
+			.setTokenize(Boolean.TRUE)
+			.setWordSeparatorCharacterRE(TermFrequencyTest.WORD_SEPARATOR_RE);
+
+		checkEvaluate(textIndex, "split", TermFrequencyTest.WORD_SEPARATOR_RE);
+	}
+
+	@Test
+	public void interleave(){
+		String document = "Good movie, good movie!";
+		String otherDocument = "Bad movie. Bad acting, bad plot.";
+
+		// Two columns, and two tokenizers, are evaluated in turn
+		for(int i = 0; i < 3; i++){
+			assertEquals(2, TermFrequency.evaluate(document, "good movie", "match", TermFrequencyTest.WORD_RE, false));
+			assertEquals(0, TermFrequency.evaluate(otherDocument, "good movie", "match", TermFrequencyTest.WORD_RE, false));
+			assertEquals(3, TermFrequency.evaluate(otherDocument, "bad", "split", TermFrequencyTest.WORD_SEPARATOR_RE, false));
+			assertEquals(2, TermFrequency.evaluate(document, "movie", "split", TermFrequencyTest.WORD_SEPARATOR_RE, false));
+		}
+	}
+
+	static
+	private void checkEvaluate(TextIndex textIndex, String mode, String regex){
+
+		for(boolean binary : new boolean[]{false, true}){
+			textIndex.setLocalTermWeights(binary ? TextIndex.LocalTermWeights.BINARY : null);
+
+			for(String document : TermFrequencyTest.DOCUMENTS){
+
+				for(String term : TermFrequencyTest.TERMS){
+					int expected = evaluate(textIndex, document, term);
+					int actual = TermFrequency.evaluate(document, term, mode, regex, binary);
+
+					assertEquals(expected, actual, "Term \"" + term + "\" in document \"" + document + "\"");
+				}
+			}
+		}
+	}
+
+	static
+	private int evaluate(TextIndex textIndex, String document, String term){
+		EvaluationContext context = new VirtualEvaluationContext();
+		context.declare("document", document);
+		context.declare("term", term);
+
+		FieldValue value = ExpressionUtil.evaluate(textIndex, context);
+
+		return (value.asNumber()).intValue();
+	}
+
+	private static final String WORD_RE = "(?u)\\b\\w\\w+\\b";
+	private static final String WORD_SEPARATOR_RE = "\\s+";
+
+	private static final List<String> DOCUMENTS = Arrays.asList(
+		"Good movie, good movie!",
+		"Not a good movie. Not good at all",
+		"The plot was bad; the acting was worse",
+		"I liked it, I liked the movie and I liked the music",
+		"",
+		"..."
+	);
+
+	private static final List<String> TERMS = Arrays.asList(
+		// Unigrams
+		"good", "movie", "bad", "liked", "music", "missing",
+		// Bigrams
+		"good movie", "not good", "liked the", "the acting",
+		// Trigrams
+		"liked the movie", "not good at", "good good good"
+	);
+}
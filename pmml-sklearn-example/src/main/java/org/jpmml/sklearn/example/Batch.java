@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn.example;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.LogManager;
+
+import com.beust.jcommander.DefaultUsageFormatter;
+import com.beust.jcommander.IUsageFormatter;
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import org.jpmml.converter.LoggingUtil;
+import org.jpmml.sklearn.SkLearnUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Converts many pickle files in one JVM, using a fixed-size pool of worker threads.
+ * </p>
+ *
+ * <p>
+ * A failed conversion does not affect other conversions.
+ * The outcome of every conversion is reported in a JSON summary document.
+ * </p>
+ */
+public class Batch {
+
+	@Parameter (
+		names = {"--pkl-input-dir"},
+		description = "Pickle input directory. All \"*.pkl\" files are converted",
+		order = 1
+	)
+	private File inputDir = null;
+
+	@Parameter (
+		names = {"--pmml-output-dir"},
+		description = "PMML output directory. Required together with the pickle input directory",
+		order = 2
+	)
+	private File outputDir = null;
+
+	@Parameter (
+		names = {"--manifest"},
+		description = "Job manifest file. Every line is a tab-separated list of a pickle input file, a PMML output file and zero or more \"<name>=<value>\" PMML options",
+		order = 3
+	)
+	private File manifest = null;
+
+	@Parameter (
+		names = {"--summary-output"},
+		description = "JSON summary output file. If not specified, then the summary is printed to the standard output",
+		order = 4
+	)
+	private File summaryOutput = null;
+
+	@Parameter (
+		names = {"--threads"},
+		description = "Number of worker threads",
+		order = 5
+	)
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	@Parameter (
+		names = {"--help"},
+		description = "Show the list of configuration options and exit",
+		help = true,
+		order = Integer.MAX_VALUE
+	)
+	private boolean help = false;
+
+
+	static
+	public void main(String... args) throws Exception {
+		Batch batch = new Batch();
+
+		JCommander commander = new JCommander(batch);
+		commander.setProgramName(Batch.class.getName());
+
+		IUsageFormatter usageFormatter = new DefaultUsageFormatter(commander);
+
+		try {
+			commander.parse(args);
+
+			if((batch.inputDir == null) == (batch.manifest == null)){
+				throw new ParameterException("Exactly one of --pkl-input-dir and --manifest must be specified");
+			} // End if
+
+			if(batch.inputDir != null && batch.outputDir == null){
+				throw new ParameterException("The --pmml-output-dir must be specified together with --pkl-input-dir");
+			}
+		} catch(ParameterException pe){
+			StringBuilder sb = new StringBuilder();
+
+			sb.append(pe.toString());
+			sb.append("\n");
+
+			usageFormatter.usage(sb);
+
+			System.err.println(sb.toString());
+
+			System.exit(-1);
+		}
+
+		if(batch.help){
+			StringBuilder sb = new StringBuilder();
+
+			usageFormatter.usage(sb);
+
+			System.out.println(sb.toString());
+
+			System.exit(0);
+		}
+
+		int failed = batch.run();
+
+		System.exit(failed > 0 ? 1 : 0);
+	}
+
+	/**
+	 * @return The number of failed jobs.
+	 */
+	public int run() throws Exception {
+		List<Job> jobs = loadJobs();
+
+		logger.info("Converting {} pickle file(s) using {} thread(s)..", jobs.size(), this.threads);
+
+		ExecutorService executorService = Executors.newFixedThreadPool(Math.max(this.threads, 1));
+
+		List<Future<Long>> futures = new ArrayList<>();
+
+		try {
+			for(Job job : jobs){
+				Callable<Long> callable = new Callable<Long>(){
+
+					@Override
+					public Long call() throws Exception {
+						long begin = System.currentTimeMillis();
+						job.run();
+						long end = System.currentTimeMillis();
+
+						return (end - begin);
+					}
+				};
+
+				futures.add(executorService.submit(callable));
+			}
+		} finally {
+			executorService.shutdown();
+		}
+
+		int failed = 0;
+
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\n");
+		sb.append("\t\"jobs\" : [");
+
+		for(int i = 0; i < jobs.size(); i++){
+			Job job = jobs.get(i);
+			Future<Long> future = futures.get(i);
+
+			sb.append(i > 0 ? ",\n" : "\n");
+			sb.append("\t\t{");
+			sb.append("\"input\" : ").append(JSONUtil.quote(job.getInput().getPath()));
+			sb.append(", \"output\" : ").append(JSONUtil.quote(job.getOutput().getPath()));
+
+			try {
+				Long millis = future.get();
+
+				sb.append(", \"status\" : \"OK\"");
+				sb.append(", \"millis\" : ").append(millis);
+			} catch(ExecutionException ee){
+				Throwable cause = ee.getCause();
+
+				failed++;
+
+				sb.append(", \"status\" : \"ERROR\"");
+				sb.append(", \"message\" : ").append(JSONUtil.quote(String.valueOf(cause)));
+			}
+
+			sb.append("}");
+		}
+
+		sb.append("\n\t],\n");
+		sb.append("\t\"succeeded\" : ").append(jobs.size() - failed).append(",\n");
+		sb.append("\t\"failed\" : ").append(failed).append("\n");
+		sb.append("}\n");
+
+		if(this.summaryOutput != null){
+
+			try(OutputStream os = new FileOutputStream(this.summaryOutput)){
+				PrintWriter printWriter = new PrintWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+
+				printWriter.print(sb.toString());
+				printWriter.flush();
+			}
+		} else
+
+		{
+			System.out.print(sb.toString());
+			System.out.flush();
+		}
+
+		logger.info("Converted {} pickle file(s), {} failed", jobs.size() - failed, failed);
+
+		return failed;
+	}
+
+	private List<Job> loadJobs() throws IOException {
+		List<Job> result = new ArrayList<>();
+
+		if(this.inputDir != null){
+			File[] files = this.inputDir.listFiles((dir, name) -> name.endsWith(".pkl"));
+			if(files == null){
+				throw new IOException("Directory " + this.inputDir + " cannot be listed");
+			}
+
+			Arrays.sort(files);
+
+			for(File file : files){
+				String name = file.getName();
+
+				File output = new File(this.outputDir, name.substring(0, name.length() - ".pkl".length()) + ".pmml");
+
+				result.add(new Job(file, output, Collections.emptyMap()));
+			}
+		} else
+
+		{
+			List<String> lines = Files.readAllLines(this.manifest.toPath(), StandardCharsets.UTF_8);
+
+			for(String line : lines){
+
+				if(line.trim().isEmpty() || line.startsWith("#")){
+					continue;
+				}
+
+				result.add(Job.parse(line));
+			}
+		}
+
+		return result;
+	}
+
+	static {
+		LogManager logManager = LogManager.getLogManager();
+		logManager.reset();
+
+		LoggingUtil.configureConsole();
+	}
+
+	private static final Logger logger = LoggerFactory.getLogger(Batch.class);
+
+	static {
+		SkLearnUtil.initOnce();
+	}
+}
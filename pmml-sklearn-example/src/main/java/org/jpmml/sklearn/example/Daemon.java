@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.LogManager;
+
+import com.beust.jcommander.DefaultUsageFormatter;
+import com.beust.jcommander.IUsageFormatter;
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import org.jpmml.converter.LoggingUtil;
+import org.jpmml.sklearn.SkLearnUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * A long-running conversion server.
+ * </p>
+ *
+ * <p>
+ * Conversion jobs are submitted as text lines, either via the standard input, or via a local TCP socket:
+ * <pre>
+ * &lt;Pickle input file&gt; TAB &lt;PMML output file&gt; [TAB &lt;option name&gt;=&lt;option value&gt;]*
+ * </pre>
+ * Job outcomes are reported as text lines, either via the standard output, or via the same TCP socket:
+ * <pre>
+ * OK TAB &lt;PMML output file&gt; TAB &lt;Elapsed time in ms&gt;
+ * ERROR TAB &lt;PMML output file&gt; TAB &lt;Error message&gt;
+ * </pre>
+ * Outcomes are reported in job completion order, which may differ from the job submission order.
+ * </p>
+ *
+ * <p>
+ * The daemon is stopped by sending a {@link #COMMAND_SHUTDOWN} line (in standard input mode, also by closing the standard input),
+ * or by sending a SIGINT or SIGTERM signal to the JVM.
+ * In both cases, no new jobs are accepted, and jobs that have already been submitted are allowed to complete.
+ * </p>
+ *
+ * <p>
+ * Python class registries and JAXB runtime are initialized once, and shared by all jobs.
+ * </p>
+ */
+public class Daemon {
+
+	@Parameter (
+		names = {"--port"},
+		description = "Local TCP port. If not specified, then jobs are read from the standard input",
+		order = 1
+	)
+	private Integer port = null;
+
+	@Parameter (
+		names = {"--threads"},
+		description = "Number of worker threads",
+		order = 2
+	)
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	@Parameter (
+		names = {"--queue-size"},
+		description = "Number of pending jobs. When exceeded, the submitting thread (the connection thread, or the standard input thread) runs the job itself",
+		order = 3
+	)
+	private int queueSize = 100;
+
+	@Parameter (
+		names = {"--help"},
+		description = "Show the list of configuration options and exit",
+		help = true,
+		order = Integer.MAX_VALUE
+	)
+	private boolean help = false;
+
+	private volatile boolean shutdown = false;
+
+	private volatile ServerSocket serverSocket = null;
+
+
+	static
+	public void main(String... args) throws Exception {
+		Daemon daemon = new Daemon();
+
+		JCommander commander = new JCommander(daemon);
+		commander.setProgramName(Daemon.class.getName());
+
+		IUsageFormatter usageFormatter = new DefaultUsageFormatter(commander);
+
+		try {
+			commander.parse(args);
+		} catch(ParameterException pe){
+			StringBuilder sb = new StringBuilder();
+
+			sb.append(pe.toString());
+			sb.append("\n");
+
+			usageFormatter.usage(sb);
+
+			System.err.println(sb.toString());
+
+			System.exit(-1);
+		}
+
+		if(daemon.help){
+			StringBuilder sb = new StringBuilder();
+
+			usageFormatter.usage(sb);
+
+			System.out.println(sb.toString());
+
+			System.exit(0);
+		}
+
+		daemon.run();
+	}
+
+	public void run() throws Exception {
+		ExecutorService executorService = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(this.queueSize), new RejectionHandler());
+
+		// Invoked on SIGINT and SIGTERM
+		Thread shutdownHook = new Thread(){
+
+			@Override
+			public void run(){
+				requestShutdown();
+
+				try {
+					awaitTermination(executorService);
+				} catch(InterruptedException ie){
+					// Ignored
+				}
+			}
+		};
+
+		Runtime runtime = Runtime.getRuntime();
+		runtime.addShutdownHook(shutdownHook);
+
+		try {
+			if(this.port != null){
+				try(ServerSocket serverSocket = new ServerSocket(this.port, 50, InetAddress.getLoopbackAddress())){
+					this.serverSocket = serverSocket;
+
+					logger.info("Listening on {}", serverSocket.getLocalSocketAddress());
+
+					while(!this.shutdown){
+						Socket socket;
+
+						try {
+							socket = serverSocket.accept();
+						} catch(SocketException se){
+
+							// Closed by requestShutdown()
+							if(this.shutdown){
+								break;
+							}
+
+							throw se;
+						}
+
+						Thread thread = new Thread(){
+
+							@Override
+							public void run(){
+
+								try(Socket connection = socket){
+									serve(connection.getInputStream(), connection.getOutputStream(), executorService);
+								} catch(Exception e){
+									logger.warn("Connection failed", e);
+								}
+							}
+						};
+						thread.setDaemon(true);
+						thread.start();
+					}
+				} finally {
+					this.serverSocket = null;
+				}
+			} else
+
+			{
+				serve(System.in, System.out, executorService);
+			}
+		} finally {
+			awaitTermination(executorService);
+
+			try {
+				runtime.removeShutdownHook(shutdownHook);
+			} catch(IllegalStateException ise){
+				// Ignored. The JVM is already shutting down
+			}
+		}
+
+		logger.info("Shut down");
+	}
+
+	/**
+	 * <p>
+	 * Stops accepting new connections.
+	 * Connections that are already open stay open until they are closed by the client,
+	 * but all jobs that are submitted after the worker pool has been shut down are rejected with an <code>ERROR</code> outcome.
+	 * </p>
+	 */
+	private void requestShutdown(){
+		this.shutdown = true;
+
+		ServerSocket serverSocket = this.serverSocket;
+		if(serverSocket != null){
+
+			try {
+				serverSocket.close();
+			} catch(IOException ioe){
+				// Ignored
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Reads jobs until the end of the input stream, and waits for them to complete.
+	 * </p>
+	 */
+	private void serve(InputStream is, OutputStream os, ExecutorService executorService) throws Exception {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+
+		Writer writer = new OutputStreamWriter(os, StandardCharsets.UTF_8);
+
+		PrintWriter printWriter = new PrintWriter(writer, true);
+
+		Phaser phaser = new Phaser(1);
+
+		while(true){
+			String line = reader.readLine();
+			if(line == null){
+				break;
+			} // End if
+
+			if(line.trim().isEmpty()){
+				continue;
+			} // End if
+
+			if((Daemon.COMMAND_SHUTDOWN).equals(line.trim())){
+				requestShutdown();
+
+				break;
+			}
+
+			Job job;
+
+			try {
+				job = Job.parse(line);
+			} catch(IllegalArgumentException iae){
+				report(printWriter, "ERROR", line, iae.getMessage());
+
+				continue;
+			}
+
+			phaser.register();
+
+			Task task = new Task(job, printWriter, phaser);
+
+			executorService.execute(task);
+		}
+
+		phaser.arriveAndAwaitAdvance();
+	}
+
+	static
+	private class Task implements Runnable {
+
+		private Job job = null;
+
+		private PrintWriter printWriter = null;
+
+		private Phaser phaser = null;
+
+
+		private Task(Job job, PrintWriter printWriter, Phaser phaser){
+			this.job = job;
+			this.printWriter = printWriter;
+			this.phaser = phaser;
+		}
+
+		@Override
+		public void run(){
+			Job job = this.job;
+
+			try {
+				long begin = System.currentTimeMillis();
+				job.run();
+				long end = System.currentTimeMillis();
+
+				report(this.printWriter, "OK", String.valueOf(job.getOutput()), String.valueOf(end - begin));
+			} catch(Exception e){
+				report(this.printWriter, "ERROR", String.valueOf(job.getOutput()), String.valueOf(e));
+			} finally {
+				this.phaser.arriveAndDeregister();
+			}
+		}
+
+		private void reject(String message){
+			Job job = this.job;
+
+			try {
+				report(this.printWriter, "ERROR", String.valueOf(job.getOutput()), message);
+			} finally {
+				this.phaser.arriveAndDeregister();
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Runs the job in the submitting thread when the queue is full (like {@link ThreadPoolExecutor.CallerRunsPolicy}).
+	 * Rejects the job when the worker pool has been shut down.
+	 * Shutdown may happen between any check and the submission, so it must be handled here, where the submission fails.
+	 * </p>
+	 */
+	static
+	private class RejectionHandler implements RejectedExecutionHandler {
+
+		@Override
+		public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor){
+			Task task = (Task)runnable;
+
+			if(executor.isShutdown()){
+				task.reject("Shutting down");
+
+				return;
+			}
+
+			task.run();
+		}
+	}
+
+	static
+	private void awaitTermination(ExecutorService executorService) throws InterruptedException {
+		executorService.shutdown();
+
+		executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+	}
+
+	static
+	private void report(PrintWriter printWriter, String status, String output, String message){
+		String line = status + "\t" + output + "\t" + message.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+
+		synchronized(printWriter){
+			printWriter.println(line);
+		}
+	}
+
+	/**
+	 * The job line that stops the daemon.
+	 */
+	public static final String COMMAND_SHUTDOWN = "SHUTDOWN";
+
+	static {
+		LogManager logManager = LogManager.getLogManager();
+		logManager.reset();
+
+		LoggingUtil.configureConsole();
+	}
+
+	private static final Logger logger = LoggerFactory.getLogger(Daemon.class);
+
+	static {
+		SkLearnUtil.initOnce();
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn.example;
+
+class JSONUtil {
+
+	private JSONUtil(){
+	}
+
+	/**
+	 * @return A JSON string literal.
+	 */
+	static
+	public String quote(String value){
+
+		if(value == null){
+			return "null";
+		}
+
+		StringBuilder sb = new StringBuilder(value.length() + 2);
+		sb.append('\"');
+
+		for(int i = 0; i < value.length(); i++){
+			char c = value.charAt(i);
+
+			switch(c){
+				case '\"':
+					sb.append("\\\"");
+					break;
+				case '\\':
+					sb.append("\\\\");
+					break;
+				case '\n':
+					sb.append("\\n");
+					break;
+				case '\r':
+					sb.append("\\r");
+					break;
+				case '\t':
+					sb.append("\\t");
+					break;
+				default:
+					if(c < 0x20){
+						sb.append(String.format("\\u%04x", (int)c));
+					} else
+
+					{
+						sb.append(c);
+					}
+					break;
+			}
+		}
+
+		sb.append('\"');
+
+		return sb.toString();
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn.example;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * A conversion job, whose PMML options are specified as a map (instead of command-line parameters).
+ * </p>
+ */
+class Job extends Main {
+
+	private Map<String, ?> options = null;
+
+
+	Job(File input, File output, Map<String, ?> options){
+		setInput(input);
+		setOutput(output);
+
+		this.options = options;
+	}
+
+	@Override
+	public Map<String, ?> getOptions(){
+		return this.options;
+	}
+
+	/**
+	 * <p>
+	 * Parses a job from a tab-separated line:
+	 * <pre>
+	 * &lt;Pickle input file&gt; TAB &lt;PMML output file&gt; [TAB &lt;option name&gt;=&lt;option value&gt;]*
+	 * </pre>
+	 * </p>
+	 */
+	static
+	public Job parse(String line){
+		String[] parts = line.split("\t");
+
+		if(parts.length < 2){
+			throw new IllegalArgumentException("Expected a tab-separated line with at least two columns, got \"" + line + "\"");
+		}
+
+		Map<String, Object> options = new LinkedHashMap<>();
+
+		for(int i = 2; i < parts.length; i++){
+			String part = parts[i];
+
+			int equals = part.indexOf('=');
+			if(equals < 1){
+				throw new IllegalArgumentException("Expected a \"<name>=<value>\" option, got \"" + part + "\"");
+			}
+
+			options.put(part.substring(0, equals), parseValue(part.substring(equals + 1)));
+		}
+
+		return new Job(new File(parts[0]), new File(parts[1]), options);
+	}
+
+	static
+	private Object parseValue(String string){
+
+		if(("false").equalsIgnoreCase(string) || ("true").equalsIgnoreCase(string)){
+			return Boolean.valueOf(string);
+		}
+
+		try {
+			return Integer.valueOf(string);
+		} catch(NumberFormatException nfe){
+			// Ignored
+		}
+
+		try {
+			return Double.valueOf(string);
+		} catch(NumberFormatException nfe){
+			// Ignored
+		}
+
+		return string;
+	}
+}
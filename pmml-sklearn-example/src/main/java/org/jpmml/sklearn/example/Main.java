@@ -18,15 +18,27 @@
  */
 package org.jpmml.sklearn.example;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.logging.LogManager;
+import java.util.zip.GZIPOutputStream;
 
 import com.beust.jcommander.DefaultUsageFormatter;
 import com.beust.jcommander.IUsageFormatter;
@@ -37,13 +49,18 @@ import org.dmg.pmml.PMML;
 import org.jpmml.converter.LoggingUtil;
 import org.jpmml.model.JAXBSerializer;
 import org.jpmml.model.metro.MetroJAXBSerializer;
+import org.jpmml.python.ClassDictUtil;
 import org.jpmml.python.PythonUnpickler;
 import org.jpmml.python.Storage;
 import org.jpmml.python.StorageUtil;
+import org.jpmml.sklearn.ConversionCache;
+import org.jpmml.sklearn.ConversionMetrics;
 import org.jpmml.sklearn.Encodable;
 import org.jpmml.sklearn.EncodableUtil;
+import org.jpmml.sklearn.OutputContext;
 import org.jpmml.sklearn.SkLearnUnpickler;
 import org.jpmml.sklearn.SkLearnUtil;
+import org.jpmml.sklearn.jfr.MarshalEvent;
 import org.jpmml.telemetry.Incident;
 import org.jpmml.telemetry.TelemetryClient;
 import org.slf4j.Logger;
@@ -69,11 +86,46 @@ public class Main {
 	)
 	private File output = null;
 
+	@Parameter (
+		names = {"--pmml-output-format"},
+		description = "PMML output file format. Either \"pretty\" (indented XML), \"compact\" (non-indented XML) or \"gzip\" (GZIP-compressed non-indented XML)",
+		order = 3
+	)
+	private OutputFormat outputFormat = OutputFormat.PRETTY;
+
+	@Parameter (
+		names = {"--pmml-output-parallel"},
+		description = "Marshal MiningModel segments in parallel. The PMML output file is identical to the one produced by sequential marshalling",
+		order = 4
+	)
+	private boolean parallelOutput = false;
+
+	@Parameter (
+		names = {"--metrics-output"},
+		description = "JSON metrics output file. Reports elapsed time and allocated heap space per conversion phase and per step",
+		order = 5
+	)
+	private File metricsOutput = null;
+
+	@Parameter (
+		names = {"--cache-dir"},
+		description = "Conversion cache directory. Conversion results are keyed by the SHA-256 digest of the pickle file content, PMML options and converter version",
+		order = 6
+	)
+	private File cacheDir = null;
+
+	@Parameter (
+		names = {"--cache-max-size"},
+		description = "Maximum total size of conversion cache entries (in bytes). Least recently used entries are evicted first",
+		order = 7
+	)
+	private long cacheMaxSize = 1024L * 1024L * 1024L;
+
 	@Parameter (
 		names = {"--X-" + HasTreeOptions.OPTION_ALLOW_MISSING},
 		description = "Allow \"value is missing\" node split conditions",
 		arity = 1,
-		order = 3
+		order = 8
 	)
 	private Boolean allowMissing = null;
 
@@ -81,15 +133,23 @@ public class Main {
 		names = {"--X-" + HasTreeOptions.OPTION_COMPACT},
 		description = "Transform SkLearn-style trees to PMML-style trees",
 		arity = 1,
-		order = 4
+		order = 9
 	)
 	private Boolean compact = null;
 
+	@Parameter (
+		names = {"--X-" + HasTreeOptions.OPTION_DEDUPLICATE},
+		description = "Merge identical tree ensemble members",
+		arity = 1,
+		order = 10
+	)
+	private Boolean deduplicate = null;
+
 	@Parameter (
 		names = {"--X-" + HasTreeOptions.OPTION_FLAT},
 		description = "Flatten trees",
 		arity = 1,
-		order = 5
+		order = 11
 	)
 	private Boolean flat = null;
 
@@ -97,7 +157,7 @@ public class Main {
 		names = {"--X-" + HasTreeOptions.OPTION_INPUT_FLOAT},
 		description = "Allow field data type updates",
 		arity = 1,
-		order = 6
+		order = 12
 	)
 	private Boolean inputFloat = null;
 
@@ -105,7 +165,7 @@ public class Main {
 		names = {"--X-" + HasTreeOptions.OPTION_NODE_ID},
 		description = "Keep SkLearn node identifiers",
 		arity = 1,
-		order = 7
+		order = 13
 	)
 	private Boolean nodeId = null;
 
@@ -113,7 +173,7 @@ public class Main {
 		names = {"--X-" + HasTreeOptions.OPTION_NODE_SCORE},
 		description = "Keep SkLearn node scores for branch (non-leaf) nodes",
 		arity = 1,
-		order = 8
+		order = 14
 	)
 	private Boolean nodeScore = null;
 
@@ -121,15 +181,23 @@ public class Main {
 		names = {"--X-" + HasTreeOptions.OPTION_NUMERIC},
 		description = "Transform non-numeric node split conditions to numeric",
 		arity = 1,
-		order = 9
+		order = 15
 	)
 	private Boolean numeric = null;
 
+	@Parameter (
+		names = {"--X-" + HasTreeOptions.OPTION_PARALLEL},
+		description = "Encode tree ensemble members in parallel",
+		arity = 1,
+		order = 16
+	)
+	private Boolean parallel = null;
+
 	@Parameter (
 		names = {"--X-" + HasTreeOptions.OPTION_PRUNE},
 		description = "Truncate invariant leaf nodes",
 		arity = 1,
-		order = 10
+		order = 17
 	)
 	private Boolean prune = null;
 
@@ -137,7 +205,7 @@ public class Main {
 		names = {"--X-" + HasTreeOptions.OPTION_WINNER_ID},
 		description = "Output node identifiers",
 		arity = 1,
-		order = 11
+		order = 18
 	)
 	private Boolean winnerId = null;
 
@@ -146,7 +214,7 @@ public class Main {
 		description = "Prediction confidence level",
 		converter = ConfidenceLevelConverter.class,
 		arity = 1,
-		order = 12
+		order = 19
 	)
 	private ConfidenceLevel confidenceLevel = null;
 
@@ -221,6 +289,51 @@ public class Main {
 	}
 
 	public void run() throws Exception {
+
+		if(this.metricsOutput == null){
+			convert();
+
+			return;
+		}
+
+		ConversionMetrics metrics = ConversionMetrics.activate();
+
+		try {
+			convert();
+		} finally {
+			ConversionMetrics.deactivate();
+
+			try {
+				writeMetrics(metrics, this.metricsOutput);
+			} catch(IOException ioe){
+				logger.warn("Failed to write metrics", ioe);
+			}
+		}
+	}
+
+	private void convert() throws Exception {
+		ConversionCache cache = null;
+		String cacheKey = null;
+
+		if(this.cacheDir != null){
+			cache = new ConversionCache(this.cacheDir, this.cacheMaxSize);
+			cacheKey = ConversionCache.computeKey(this.input, getCacheOptions(), Main.TRANSIENT_OPTIONS, ConversionCache.getVersion());
+
+			MappedByteBuffer buffer = cache.map(cacheKey);
+			if(buffer != null){
+				logger.info("Found PMML in conversion cache");
+
+				try(FileChannel channel = FileChannel.open((this.output).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+
+					while(buffer.hasRemaining()){
+						channel.write(buffer);
+					}
+				}
+
+				return;
+			}
+		}
+
 		Object object;
 
 		try(Storage storage = StorageUtil.createStorage(this.input)){
@@ -229,7 +342,11 @@ public class Main {
 			PythonUnpickler pythonUnpickler = new SkLearnUnpickler();
 
 			long begin = System.currentTimeMillis();
-			object = pythonUnpickler.load(storage);
+
+			try(ConversionMetrics.Span span = ConversionMetrics.open("parse", this.input.getName())){
+				object = pythonUnpickler.load(storage);
+			}
+
 			long end = System.currentTimeMillis();
 
 			logger.info("Parsed PKL in {} ms.", (end - begin));
@@ -256,11 +373,18 @@ public class Main {
 
 		PMML pmml;
 
+		// Sidecar files are resolved against the PMML output file
+		OutputContext context = OutputContext.activate(this.output);
+
 		try {
 			logger.info("Converting PKL to PMML..");
 
 			long begin = System.currentTimeMillis();
-			pmml = EncodableUtil.encodePMML(encodable);
+
+			try(ConversionMetrics.Span span = ConversionMetrics.open("convert", ClassDictUtil.formatClass(encodable))){
+				pmml = EncodableUtil.encodePMML(encodable);
+			}
+
 			long end = System.currentTimeMillis();
 
 			logger.info("Converted PKL to PMML in {} ms.", (end - begin));
@@ -268,15 +392,22 @@ public class Main {
 			logger.error("Failed to convert PKL to PMML", e);
 
 			throw e;
+		} finally {
+			OutputContext.deactivate();
 		}
 
-		try(OutputStream os = new FileOutputStream(this.output)){
-			logger.info("Marshalling PMML..");
+		MarshalEvent event = new MarshalEvent();
+		event.begin();
 
-			JAXBSerializer jaxbSerializer = new MetroJAXBSerializer();
+		try(OutputStream os = createOutputStream(this.output, this.outputFormat)){
+			logger.info("Marshalling PMML..");
 
 			long begin = System.currentTimeMillis();
-			jaxbSerializer.serializePretty(pmml, os);
+
+			try(ConversionMetrics.Span span = ConversionMetrics.open("marshal", this.output.getName())){
+				serialize(pmml, this.outputFormat, this.parallelOutput, os);
+			}
+
 			long end = System.currentTimeMillis();
 
 			logger.info("Marshalled PMML in {} ms.", (end - begin));
@@ -285,18 +416,134 @@ public class Main {
 
 			throw e;
 		}
+
+		event.end();
+
+		if(event.shouldCommit()){
+			event.output = this.output.getName();
+			event.size = this.output.length();
+			event.commit();
+		}
+
+		List<File> sidecarFiles = context.getSidecarFiles();
+
+		// The conversion cache holds the PMML output file only
+		if(cache != null && !sidecarFiles.isEmpty()){
+			logger.info("Not storing PMML in conversion cache, because the conversion wrote {} sidecar file(s)", sidecarFiles.size());
+		} else
+
+		if(cache != null){
+
+			try {
+				cache.put(cacheKey, this.output);
+			} catch(IOException ioe){
+				logger.warn("Failed to store PMML in conversion cache", ioe);
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Marshals the PMML object in the requested format.
+	 * Sequential and parallel marshalling produce identical output for every format.
+	 * </p>
+	 *
+	 * @param os The output stream, as returned by {@link #createOutputStream(File, OutputFormat)}.
+	 */
+	static
+	void serialize(PMML pmml, OutputFormat outputFormat, boolean parallel, OutputStream os) throws Exception {
+		boolean pretty = outputFormat.isPretty();
+
+		if(parallel){
+			ParallelSerializer parallelSerializer = new ParallelSerializer();
+
+			if(pretty){
+				parallelSerializer.serializePretty(pmml, os);
+			} else
+
+			{
+				parallelSerializer.serialize(pmml, os);
+			}
+		} else
+
+		{
+			JAXBSerializer jaxbSerializer = new MetroJAXBSerializer();
+
+			if(pretty){
+				jaxbSerializer.serializePretty(pmml, os);
+			} else
+
+			{
+				jaxbSerializer.serialize(pmml, os);
+			}
+		}
+	}
+
+	static
+	OutputStream createOutputStream(File file, OutputFormat outputFormat) throws IOException {
+		OutputStream os = new BufferedOutputStream(Files.newOutputStream(file.toPath()), 64 * 1024);
+
+		if(outputFormat.isCompressed()){
+			return new GZIPOutputStream(os, 64 * 1024);
+		}
+
+		return os;
 	}
 
-	private Map<String, ?> getOptions(){
+	static
+	private void writeMetrics(ConversionMetrics metrics, File file) throws IOException {
+		List<ConversionMetrics.Entry> entries = metrics.getEntries();
+
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\n");
+		sb.append("\t\"entries\" : [");
+
+		for(int i = 0; i < entries.size(); i++){
+			ConversionMetrics.Entry entry = entries.get(i);
+
+			sb.append(i > 0 ? ",\n" : "\n");
+			sb.append("\t\t{");
+			sb.append("\"phase\" : ").append(JSONUtil.quote(entry.getPhase()));
+			sb.append(", \"name\" : ").append(JSONUtil.quote(entry.getName()));
+			sb.append(", \"depth\" : ").append(entry.getDepth());
+			sb.append(", \"nanos\" : ").append(entry.getNanos());
+			sb.append(", \"allocatedBytes\" : ").append(entry.getAllocatedBytes());
+			sb.append("}");
+		}
+
+		sb.append("\n\t]\n");
+		sb.append("}\n");
+
+		try(Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)){
+			writer.write(sb.toString());
+		}
+	}
+
+	/**
+	 * <p>
+	 * Returns PMML options together with options that affect the content of the PMML output file.
+	 * </p>
+	 */
+	private Map<String, ?> getCacheOptions(){
+		Map<String, Object> options = new LinkedHashMap<>(getOptions());
+
+		options.put("pmml-output-format", this.outputFormat.name());
+
+		return options;
+	}
+
+	public Map<String, ?> getOptions(){
 		Map<String, Object> options = new LinkedHashMap<>();
 
 		options.put(HasTreeOptions.OPTION_ALLOW_MISSING, this.allowMissing);
 		options.put(HasTreeOptions.OPTION_COMPACT, this.compact);
+		options.put(HasTreeOptions.OPTION_DEDUPLICATE, this.deduplicate);
 		options.put(HasTreeOptions.OPTION_FLAT, this.flat);
 		options.put(HasTreeOptions.OPTION_INPUT_FLOAT, this.inputFloat);
 		options.put(HasTreeOptions.OPTION_NODE_ID, this.nodeId);
 		options.put(HasTreeOptions.OPTION_NODE_SCORE, this.nodeScore);
 		options.put(HasTreeOptions.OPTION_NUMERIC, this.numeric);
+		options.put(HasTreeOptions.OPTION_PARALLEL, this.parallel);
 		options.put(HasTreeOptions.OPTION_PRUNE, this.prune);
 		options.put(HasTreeOptions.OPTION_WINNER_ID, this.winnerId);
 
@@ -335,6 +582,11 @@ public class Main {
 
 	private static final Logger logger = LoggerFactory.getLogger(Main.class);
 
+	/**
+	 * PMML options that affect how the PMML document is produced, but not its content.
+	 */
+	private static final Set<String> TRANSIENT_OPTIONS = Collections.singleton(HasTreeOptions.OPTION_PARALLEL);
+
 	static {
 		SkLearnUtil.initOnce();
 	}
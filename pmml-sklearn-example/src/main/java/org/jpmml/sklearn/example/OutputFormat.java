@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn.example;
+
+public enum OutputFormat {
+	/**
+	 * Indented XML.
+	 */
+	PRETTY(true, false),
+	/**
+	 * Non-indented XML.
+	 */
+	COMPACT(false, false),
+	/**
+	 * Non-indented XML, compressed using GZIP.
+	 */
+	GZIP(false, true),
+	;
+
+	private boolean pretty;
+
+	private boolean compressed;
+
+
+	OutputFormat(boolean pretty, boolean compressed){
+		this.pretty = pretty;
+		this.compressed = compressed;
+	}
+
+	public boolean isPretty(){
+		return this.pretty;
+	}
+
+	public boolean isCompressed(){
+		return this.compressed;
+	}
+}
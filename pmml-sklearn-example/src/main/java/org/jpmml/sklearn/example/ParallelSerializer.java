@@ -0,0 +1,387 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.dmg.pmml.Model;
+import org.dmg.pmml.PMML;
+import org.dmg.pmml.PMMLObject;
+import org.dmg.pmml.True;
+import org.dmg.pmml.mining.MiningModel;
+import org.dmg.pmml.mining.Segment;
+import org.dmg.pmml.mining.Segmentation;
+import org.jpmml.model.JAXBSerializer;
+import org.jpmml.model.metro.MetroJAXBSerializer;
+
+/**
+ * <p>
+ * A PMML serializer that marshals {@link Segment} elements on the common fork-join pool,
+ * and splices them into the enclosing document in their original order.
+ * </p>
+ *
+ * <p>
+ * Segments that contain a segmented mining model are descended into,
+ * so that the unit of work is always a leaf-level segment (typically, a tree model).
+ * Leaf-level segments are temporarily replaced with small placeholder segments,
+ * and the remaining document is marshalled on the calling thread at the same time.
+ * Every placeholder is then replaced with the (re-indented) markup of the segment that it stands for.
+ * The output is identical to the output of {@link JAXBSerializer#serialize(PMMLObject, OutputStream)}
+ * or {@link JAXBSerializer#serializePretty(PMMLObject, OutputStream)}, respectively.
+ * </p>
+ *
+ * <p>
+ * The speedup comes at the price of memory.
+ * In addition to the PMML object, the serializer holds the placeholder document and all segment markups as strings,
+ * which adds up to the size of the output document, times two (Java strings use one or two bytes per character).
+ * Segment markups are released one by one as they are written.
+ * </p>
+ */
+public class ParallelSerializer {
+
+	private JAXBSerializer serializer = null;
+
+
+	public ParallelSerializer() throws Exception {
+		this(new MetroJAXBSerializer());
+	}
+
+	public ParallelSerializer(JAXBSerializer serializer){
+		this.serializer = serializer;
+	}
+
+	public void serialize(PMML pmml, OutputStream os) throws Exception {
+		serialize(pmml, false, os);
+	}
+
+	public void serializePretty(PMML pmml, OutputStream os) throws Exception {
+		serialize(pmml, true, os);
+	}
+
+	private void serialize(PMML pmml, boolean pretty, OutputStream os) throws Exception {
+		JAXBSerializer serializer = this.serializer;
+
+		List<Slot> slots = collectSlots(pmml);
+		if(slots.size() < 2){
+
+			if(pretty){
+				serializer.serializePretty(pmml, os);
+			} else
+
+			{
+				serializer.serialize(pmml, os);
+			}
+
+			return;
+		}
+
+		String[] fragments = new String[slots.size()];
+
+		ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+
+		int chunks = Math.max(forkJoinPool.getParallelism() * 4, 1);
+		int chunkSize = Math.max((slots.size() + (chunks - 1)) / chunks, 1);
+
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+
+		for(int begin = 0; begin < slots.size(); begin += chunkSize){
+			int chunkBegin = begin;
+			int chunkEnd = Math.min(begin + chunkSize, slots.size());
+
+			Callable<Void> callable = () -> {
+
+				for(int i = chunkBegin; i < chunkEnd; i++){
+					Slot slot = slots.get(i);
+
+					fragments[i] = marshalFragment(serializer, pretty, slot.segment);
+				}
+
+				return null;
+			};
+
+			tasks.add(forkJoinPool.submit(callable));
+		}
+
+		String placeholderPrefix = "placeholder-" + UUID.randomUUID() + "-";
+
+		String document;
+
+		try {
+			for(int i = 0; i < slots.size(); i++){
+				Slot slot = slots.get(i);
+
+				Segment placeholder = new Segment(True.INSTANCE, null)
+					.setId(placeholderPrefix + i);
+
+				slot.segments.set(slot.index, placeholder);
+			}
+
+			document = marshal(serializer, pretty, pmml);
+		} finally {
+
+			for(Slot slot : slots){
+				slot.segments.set(slot.index, slot.segment);
+			}
+		}
+
+		for(ForkJoinTask<?> task : tasks){
+			task.join();
+		}
+
+		Set<String> rootNamespaceDeclarations = getNamespaceDeclarations(getStartTag(document));
+
+		Writer writer = new OutputStreamWriter(os, StandardCharsets.UTF_8);
+
+		String placeholderStartTag = "<Segment id=\"" + placeholderPrefix;
+		String placeholderEndTag = "</Segment>";
+
+		int pos = 0;
+
+		while(true){
+			int begin = document.indexOf(placeholderStartTag, pos);
+			if(begin < 0){
+				break;
+			}
+
+			writer.write(document, pos, begin - pos);
+
+			int index = Integer.parseInt(document.substring(begin + placeholderStartTag.length(), document.indexOf('\"', begin + placeholderStartTag.length())));
+
+			// The indentation of the placeholder segment has already been written
+			String indent = "";
+
+			if(pretty){
+				indent = document.substring(document.lastIndexOf('\n', begin) + 1, begin);
+			}
+
+			writeFragment(removeNamespaceDeclarations(fragments[index], rootNamespaceDeclarations), indent, writer);
+
+			// Release the fragment
+			fragments[index] = null;
+
+			pos = document.indexOf(placeholderEndTag, begin) + placeholderEndTag.length();
+		}
+
+		writer.write(document, pos, document.length() - pos);
+
+		writer.flush();
+	}
+
+	static
+	private List<Slot> collectSlots(PMML pmml){
+		List<Slot> result = new ArrayList<>();
+
+		if(!pmml.hasModels()){
+			return result;
+		}
+
+		Deque<Model> models = new ArrayDeque<>(pmml.getModels());
+
+		while(!models.isEmpty()){
+			Model model = models.pop();
+
+			if(!isSegmented(model)){
+				continue;
+			}
+
+			MiningModel miningModel = (MiningModel)model;
+
+			Segmentation segmentation = miningModel.getSegmentation();
+
+			List<Segment> segments = segmentation.getSegments();
+			for(int i = 0; i < segments.size(); i++){
+				Segment segment = segments.get(i);
+
+				Model segmentModel = segment.getModel();
+
+				if(isSegmented(segmentModel)){
+					models.push(segmentModel);
+				} else
+
+				{
+					result.add(new Slot(segments, i, segment));
+				}
+			}
+		}
+
+		return result;
+	}
+
+	static
+	private boolean isSegmented(Model model){
+
+		if(model instanceof MiningModel){
+			MiningModel miningModel = (MiningModel)model;
+
+			Segmentation segmentation = miningModel.getSegmentation();
+
+			return (segmentation != null && segmentation.hasSegments());
+		}
+
+		return false;
+	}
+
+	static
+	private String marshal(JAXBSerializer serializer, boolean pretty, PMMLObject object) throws Exception {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		if(pretty){
+			serializer.serializePretty(object, buffer);
+		} else
+
+		{
+			serializer.serialize(object, buffer);
+		}
+
+		return buffer.toString(StandardCharsets.UTF_8.name());
+	}
+
+	static
+	private String marshalFragment(JAXBSerializer serializer, boolean pretty, Segment segment) throws Exception {
+		String fragment = marshal(serializer, pretty, segment);
+
+		// Remove the XML declaration
+		if(fragment.startsWith("<?xml")){
+			fragment = fragment.substring(fragment.indexOf("?>") + "?>".length());
+		}
+
+		return fragment.trim();
+	}
+
+	/**
+	 * <p>
+	 * Removes those namespace declarations from the start tag of the fragment
+	 * that are already present (with the same prefix and namespace URI) on the root element of the enclosing document.
+	 * </p>
+	 */
+	static
+	private String removeNamespaceDeclarations(String fragment, Set<String> rootNamespaceDeclarations){
+		String startTag = getStartTag(fragment);
+
+		Matcher matcher = ParallelSerializer.NAMESPACE_DECLARATION.matcher(startTag);
+
+		StringBuffer sb = new StringBuffer();
+
+		while(matcher.find()){
+			String namespaceDeclaration = matcher.group();
+
+			matcher.appendReplacement(sb, rootNamespaceDeclarations.contains(namespaceDeclaration) ? "" : Matcher.quoteReplacement(namespaceDeclaration));
+		}
+
+		matcher.appendTail(sb);
+
+		return sb + fragment.substring(startTag.length());
+	}
+
+	static
+	private Set<String> getNamespaceDeclarations(String startTag){
+		Set<String> result = new HashSet<>();
+
+		Matcher matcher = ParallelSerializer.NAMESPACE_DECLARATION.matcher(startTag);
+
+		while(matcher.find()){
+			result.add(matcher.group());
+		}
+
+		return result;
+	}
+
+	/**
+	 * @return The start tag of the first element, without the closing <code>&gt;</code> character.
+	 */
+	static
+	private String getStartTag(String markup){
+		int begin = 0;
+
+		// Skip the XML declaration, and any processing instructions or comments
+		while(markup.startsWith("<?", begin) || markup.startsWith("<!", begin)){
+			begin = markup.indexOf('<', markup.indexOf('>', begin));
+		}
+
+		return markup.substring(0, markup.indexOf('>', begin));
+	}
+
+	static
+	private void writeFragment(String fragment, String indent, Writer writer) throws Exception {
+
+		if(indent.isEmpty()){
+			writer.write(fragment);
+
+			return;
+		}
+
+		for(int begin = 0; begin < fragment.length(); ){
+			int end = fragment.indexOf('\n', begin);
+			if(end < 0){
+				end = fragment.length();
+			} else
+
+			{
+				end += 1;
+			}
+
+			String line = fragment.substring(begin, end);
+
+			// Continuation lines of multi-line text content must be written as-is.
+			// Markup lines always start with a tag, because the "<" character is escaped everywhere else
+			if(begin > 0 && (line.trim()).startsWith("<")){
+				writer.write(indent);
+			}
+
+			writer.write(line);
+
+			begin = end;
+		}
+	}
+
+	private static final Pattern NAMESPACE_DECLARATION = Pattern.compile(" xmlns(:[\\w\\-\\.]+)?=\"[^\"]*\"");
+
+	static
+	private class Slot {
+
+		private List<Segment> segments = null;
+
+		private int index = 0;
+
+		private Segment segment = null;
+
+
+		private Slot(List<Segment> segments, int index, Segment segment){
+			this.segments = segments;
+			this.index = index;
+			this.segment = segment;
+		}
+	}
+}
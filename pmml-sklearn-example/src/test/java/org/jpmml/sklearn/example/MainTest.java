@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import com.google.common.io.ByteStreams;
+import org.dmg.pmml.PMML;
+import org.jpmml.model.JAXBSerializer;
+import org.jpmml.model.metro.MetroJAXBSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MainTest {
+
+	@TempDir
+	public Path tmpDir;
+
+
+	@Test
+	public void serialize() throws Exception {
+		PMML pmml = ParallelSerializerTest.createPMML();
+
+		JAXBSerializer serializer = new MetroJAXBSerializer();
+
+		ByteArrayOutputStream prettyOs = new ByteArrayOutputStream();
+		ByteArrayOutputStream compactOs = new ByteArrayOutputStream();
+
+		serializer.serializePretty(pmml, prettyOs);
+		serializer.serialize(pmml, compactOs);
+
+		for(boolean parallel : new boolean[]{false, true}){
+			assertArrayEquals(prettyOs.toByteArray(), serialize(pmml, OutputFormat.PRETTY, parallel));
+			assertArrayEquals(compactOs.toByteArray(), serialize(pmml, OutputFormat.COMPACT, parallel));
+			assertArrayEquals(compactOs.toByteArray(), serialize(pmml, OutputFormat.GZIP, parallel));
+		}
+	}
+
+	@Test
+	public void outputFormat(){
+		assertTrue(OutputFormat.PRETTY.isPretty());
+		assertFalse(OutputFormat.PRETTY.isCompressed());
+
+		assertFalse(OutputFormat.COMPACT.isPretty());
+		assertFalse(OutputFormat.COMPACT.isCompressed());
+
+		assertFalse(OutputFormat.GZIP.isPretty());
+		assertTrue(OutputFormat.GZIP.isCompressed());
+	}
+
+	private byte[] serialize(PMML pmml, OutputFormat outputFormat, boolean parallel) throws Exception {
+		File file = (this.tmpDir.resolve(outputFormat.name() + (parallel ? "-parallel" : "") + ".pmml")).toFile();
+
+		try(OutputStream os = Main.createOutputStream(file, outputFormat)){
+			Main.serialize(pmml, outputFormat, parallel, os);
+		}
+
+		if(outputFormat.isCompressed()){
+
+			try(InputStream is = new GZIPInputStream(Files.newInputStream(file.toPath()))){
+				return ByteStreams.toByteArray(is);
+			}
+		}
+
+		return Files.readAllBytes(file.toPath());
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn.example;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.dmg.pmml.DataDictionary;
+import org.dmg.pmml.DataField;
+import org.dmg.pmml.DataType;
+import org.dmg.pmml.Extension;
+import org.dmg.pmml.Header;
+import org.dmg.pmml.MiningField;
+import org.dmg.pmml.MiningFunction;
+import org.dmg.pmml.MiningSchema;
+import org.dmg.pmml.OpType;
+import org.dmg.pmml.PMML;
+import org.dmg.pmml.SimplePredicate;
+import org.dmg.pmml.True;
+import org.dmg.pmml.Version;
+import org.dmg.pmml.mining.MiningModel;
+import org.dmg.pmml.mining.Segment;
+import org.dmg.pmml.mining.Segmentation;
+import org.dmg.pmml.tree.BranchNode;
+import org.dmg.pmml.tree.LeafNode;
+import org.dmg.pmml.tree.Node;
+import org.dmg.pmml.tree.TreeModel;
+import org.jpmml.model.JAXBSerializer;
+import org.jpmml.model.metro.MetroJAXBSerializer;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class ParallelSerializerTest {
+
+	@Test
+	public void serialize() throws Exception {
+		PMML pmml = createPMML();
+
+		JAXBSerializer serializer = new MetroJAXBSerializer();
+
+		ParallelSerializer parallelSerializer = new ParallelSerializer(serializer);
+
+		ByteArrayOutputStream sequentialOs = new ByteArrayOutputStream();
+		ByteArrayOutputStream parallelOs = new ByteArrayOutputStream();
+
+		serializer.serialize(pmml, sequentialOs);
+		parallelSerializer.serialize(pmml, parallelOs);
+
+		assertArrayEquals(sequentialOs.toByteArray(), parallelOs.toByteArray());
+
+		sequentialOs.reset();
+		parallelOs.reset();
+
+		serializer.serializePretty(pmml, sequentialOs);
+		parallelSerializer.serializePretty(pmml, parallelOs);
+
+		assertArrayEquals(sequentialOs.toByteArray(), parallelOs.toByteArray());
+	}
+
+	/**
+	 * <p>
+	 * Creates a sum of two-level segmentations (three times five tree models), plus a top-level tree model.
+	 * One tree model carries an extension element from a foreign namespace.
+	 * </p>
+	 */
+	static
+	PMML createPMML() throws Exception {
+		DataField dataField = new DataField("x", OpType.CONTINUOUS, DataType.DOUBLE);
+
+		List<Segment> segments = new ArrayList<>();
+
+		for(int i = 0; i < 3; i++){
+			List<Segment> childSegments = new ArrayList<>();
+
+			for(int j = 0; j < 5; j++){
+				TreeModel treeModel = createTreeModel(dataField.getName(), i * 5 + j);
+
+				if(i == 1 && j == 2){
+					treeModel.addExtensions(createExtension());
+				}
+
+				childSegments.add(new Segment(True.INSTANCE, treeModel)
+					.setId(i + "-" + j));
+			}
+
+			MiningModel childMiningModel = new MiningModel(MiningFunction.REGRESSION, createMiningSchema(dataField.getName()))
+				.setSegmentation(new Segmentation(Segmentation.MultipleModelMethod.AVERAGE, childSegments));
+
+			segments.add(new Segment(True.INSTANCE, childMiningModel)
+				.setId(String.valueOf(i)));
+		}
+
+		segments.add(new Segment(True.INSTANCE, createTreeModel(dataField.getName(), 15))
+			.setId("3"));
+
+		MiningModel miningModel = new MiningModel(MiningFunction.REGRESSION, createMiningSchema(dataField.getName()))
+			.setSegmentation(new Segmentation(Segmentation.MultipleModelMethod.SUM, segments));
+
+		PMML pmml = new PMML(Version.PMML_4_4.getVersion(), new Header(), new DataDictionary())
+			.addModels(miningModel);
+
+		(pmml.requireDataDictionary()).addDataFields(dataField);
+
+		return pmml;
+	}
+
+	static
+	private MiningSchema createMiningSchema(String name){
+		return new MiningSchema()
+			.addMiningFields(new MiningField(name));
+	}
+
+	static
+	private TreeModel createTreeModel(String name, int index){
+		Node root = new BranchNode(null, True.INSTANCE)
+			.addNodes(
+				new LeafNode(index, new SimplePredicate(name, SimplePredicate.Operator.LESS_OR_EQUAL, index + 0.5d)),
+				new LeafNode(index + 1, new SimplePredicate(name, SimplePredicate.Operator.GREATER_THAN, index + 0.5d))
+			);
+
+		return new TreeModel(MiningFunction.REGRESSION, createMiningSchema(name), root);
+	}
+
+	static
+	private Extension createExtension() throws Exception {
+		DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+		documentBuilderFactory.setNamespaceAware(true);
+
+		Document document = (documentBuilderFactory.newDocumentBuilder()).newDocument();
+
+		Element element = document.createElementNS("http://example.com/extension", "ext:Comment");
+		element.setTextContent("A comment\nthat spans two lines");
+
+		return new Extension()
+			.setName("comment")
+			.addContent(element);
+	}
+}
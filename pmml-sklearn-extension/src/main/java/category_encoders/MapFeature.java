@@ -39,8 +39,10 @@ import org.jpmml.converter.PMMLEncoder;
 import org.jpmml.converter.ThresholdFeature;
 import org.jpmml.converter.TypeUtil;
 import org.jpmml.model.ToStringHelper;
+import sklearn.tree.HasThresholdIndex;
+import sklearn.tree.ThresholdIndex;
 
-public class MapFeature extends ThresholdFeature {
+public class MapFeature extends ThresholdFeature implements HasThresholdIndex {
 
 	private Map<?, ? extends Number> mapping = null;
 
@@ -48,6 +50,8 @@ public class MapFeature extends ThresholdFeature {
 
 	private Number defaultValue = null;
 
+	private ThresholdIndex thresholdIndex = null;
+
 
 	public MapFeature(PMMLEncoder encoder, Field<?> field, Map<?, ? extends Number> mapping, Object missingCategory, Number defaultValue){
 		this(encoder, field.requireName(), field.requireDataType(), mapping, missingCategory, defaultValue);
@@ -116,6 +120,23 @@ public class MapFeature extends ThresholdFeature {
 		return result;
 	}
 
+	@Override
+	public synchronized ThresholdIndex getThresholdIndex(){
+		Map<?, ? extends Number> mapping = getMapping();
+		Number defaultValue = getDefaultValue();
+
+		// XXX
+		if(defaultValue != null){
+			throw new IllegalArgumentException();
+		} // End if
+
+		if(this.thresholdIndex == null){
+			this.thresholdIndex = new ThresholdIndex(mapping);
+		}
+
+		return this.thresholdIndex;
+	}
+
 	@Override
 	public int hashCode(){
 		int result = super.hashCode();
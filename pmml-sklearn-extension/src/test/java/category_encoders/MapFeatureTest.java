@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package category_encoders;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.dmg.pmml.DataField;
+import org.dmg.pmml.DataType;
+import org.dmg.pmml.MiningFunction;
+import org.dmg.pmml.OpType;
+import org.dmg.pmml.tree.TreeModel;
+import org.jpmml.converter.ContinuousFeature;
+import org.jpmml.converter.ContinuousLabel;
+import org.jpmml.converter.Feature;
+import org.jpmml.converter.PMMLEncoder;
+import org.jpmml.converter.PredicateManager;
+import org.jpmml.converter.Schema;
+import org.jpmml.converter.ThresholdFeature;
+import org.jpmml.model.JAXBSerializer;
+import org.jpmml.sklearn.SkLearnEncoder;
+import org.junit.jupiter.api.Test;
+import sklearn.tree.HasThresholdIndex;
+import sklearn.tree.Tree;
+import sklearn.tree.TreeRegressor;
+import sklearn.tree.TreeUtil;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MapFeatureTest {
+
+	@Test
+	public void encodeTreeModel() throws Exception {
+		Map<Object, Integer> mapping = new LinkedHashMap<>();
+		mapping.put(1d, 1);
+		mapping.put(2d, 2);
+		mapping.put(Double.NaN, 3);
+		mapping.put(4d, 4);
+
+		// The NaN category is a valid category
+		checkTreeModel(mapping, Double.NaN);
+
+		// The NaN category is not a valid category
+		checkTreeModel(mapping, null);
+	}
+
+	/**
+	 * <p>
+	 * Encodes the same tree twice, using the indexed category manager (the {@link MapFeature} path)
+	 * and the plain category manager (the generic {@link ThresholdFeature} path), and compares the results.
+	 * </p>
+	 */
+	static
+	private void checkTreeModel(Map<?, ? extends Number> mapping, Object missingCategory) throws Exception {
+		SkLearnEncoder encoder = new SkLearnEncoder();
+
+		DataField dataField = encoder.createDataField("x", OpType.CATEGORICAL, DataType.DOUBLE);
+
+		MapFeature mapFeature = new MapFeature(encoder, dataField, mapping, missingCategory, null);
+
+		assertTrue(mapFeature instanceof HasThresholdIndex);
+
+		Feature plainFeature = new PlainMapFeature(encoder, mapFeature);
+
+		assertFalse(plainFeature instanceof HasThresholdIndex);
+
+		String indexedTreeModel = encodeTreeModel(encoder, mapFeature);
+		String plainTreeModel = encodeTreeModel(encoder, plainFeature);
+
+		assertEquals(plainTreeModel, indexedTreeModel);
+	}
+
+	static
+	private String encodeTreeModel(SkLearnEncoder encoder, Feature feature) throws Exception {
+		TreeRegressor regressor = new TreeRegressor(null, null){
+
+			@Override
+			public Tree getTree(){
+				return createTree();
+			}
+
+			@Override
+			public boolean hasMissingValueSupport(){
+				return false;
+			}
+		};
+
+		List<Feature> features = Collections.singletonList(feature);
+
+		Schema schema = new Schema(encoder, new ContinuousLabel(DataType.DOUBLE), features);
+
+		TreeModel treeModel = TreeUtil.encodeTreeModel(regressor, MiningFunction.REGRESSION, new PredicateManager(), null, schema);
+
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+		(new JAXBSerializer()).serializePretty(treeModel, os);
+
+		return os.toString(StandardCharsets.UTF_8.name());
+	}
+
+	/**
+	 * Node 0 splits the mapped values at 2.5, and its child nodes 1 and 2 split them again at 1.5 and 3.5, respectively.
+	 */
+	static
+	private Tree createTree(){
+		int[] leftChildren = {1, 3, 5, -1, -1, -1, -1};
+		int[] rightChildren = {2, 4, 6, -1, -1, -1, -1};
+		int[] features = {0, 0, 0, -2, -2, -2, -2};
+		double[] thresholds = {2.5d, 1.5d, 3.5d, -2d, -2d, -2d, -2d};
+		double[] values = {0d, 0d, 0d, 1d, 2d, 3d, 4d};
+
+		Tree tree = new Tree("sklearn.tree._tree", "Tree"){
+
+			@Override
+			public int[] getChildrenLeft(){
+				return leftChildren;
+			}
+
+			@Override
+			public int[] getChildrenRight(){
+				return rightChildren;
+			}
+
+			@Override
+			public int[] getFeature(){
+				return features;
+			}
+
+			@Override
+			public double[] getThreshold(){
+				return thresholds;
+			}
+
+			@Override
+			public double[] getValues(){
+				return values;
+			}
+		};
+
+		return tree;
+	}
+
+	/**
+	 * A {@link MapFeature} lookalike, which does not expose a threshold index.
+	 */
+	static
+	private class PlainMapFeature extends ThresholdFeature {
+
+		private MapFeature mapFeature = null;
+
+
+		private PlainMapFeature(PMMLEncoder encoder, MapFeature mapFeature){
+			super(encoder, mapFeature.getName(), mapFeature.getDataType());
+
+			this.mapFeature = mapFeature;
+		}
+
+		@Override
+		public String getDerivedName(){
+			return this.mapFeature.getDerivedName();
+		}
+
+		@Override
+		public ContinuousFeature toContinuousFeature(){
+			return this.mapFeature.toContinuousFeature();
+		}
+
+		@Override
+		public Set<?> getValues(Predicate<Number> predicate){
+			return this.mapFeature.getValues(predicate);
+		}
+
+		@Override
+		public Object getMissingValue(){
+			return this.mapFeature.getMissingValue();
+		}
+	}
+}
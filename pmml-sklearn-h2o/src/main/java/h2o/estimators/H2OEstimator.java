@@ -18,9 +18,7 @@
  */
 package h2o.estimators;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -47,7 +45,6 @@ import org.jpmml.converter.TypeUtil;
 import org.jpmml.h2o.Converter;
 import org.jpmml.h2o.ConverterFactory;
 import org.jpmml.h2o.H2OEncoder;
-import org.jpmml.h2o.MojoModelUtil;
 import org.jpmml.python.ClassDictUtil;
 import org.jpmml.sklearn.Encodable;
 import org.jpmml.sklearn.SkLearnEncoder;
@@ -292,18 +289,25 @@ public class H2OEstimator extends Estimator implements HasClasses, Encodable {
 		if(hasattr("_mojo_bytes")){
 			byte[] mojoBytes = getMojoBytes();
 
-			try(InputStream is = new ByteArrayInputStream(mojoBytes)){
-				return MojoModelUtil.readFrom(is);
+			MojoModel mojoModel;
+
+			try {
+				mojoModel = MojoModelCache.get(mojoBytes);
 			} catch(Exception e){
 				throw new SkLearnException("Failed to load H2O.ai MOJO object", e);
 			}
+
+			// The MOJO zip file is no longer needed
+			remove("_mojo_bytes");
+
+			return mojoModel;
 		} else
 
 		{
 			String mojoPath = getMojoPath();
 
 			try {
-				return MojoModelUtil.readFrom(new File(mojoPath), false);
+				return MojoModelCache.get(new File(mojoPath));
 			} catch(Exception e){
 				throw new SkLearnException("Failed to load H2O.ai MOJO object", e);
 			}
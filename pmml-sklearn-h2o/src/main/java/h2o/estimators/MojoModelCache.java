@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package h2o.estimators;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import com.google.common.io.BaseEncoding;
+import hex.genmodel.MojoModel;
+import org.jpmml.h2o.MojoModelUtil;
+
+/**
+ * <p>
+ * A process-wide, bounded LRU cache of parsed MOJO objects.
+ * </p>
+ *
+ * <p>
+ * Cache keys are SHA-256 digests of MOJO zip file contents.
+ * Pipelines that embed the same H2O.ai model share a single parsed MOJO object.
+ * </p>
+ */
+public class MojoModelCache {
+
+	private MojoModelCache(){
+	}
+
+	static
+	public MojoModel get(byte[] bytes) throws Exception {
+		String key = computeKey(ByteBuffer.wrap(bytes));
+
+		Callable<MojoModel> loader = () -> {
+
+			try(InputStream is = new ByteArrayInputStream(bytes)){
+				return MojoModelUtil.readFrom(is);
+			}
+		};
+
+		return get(key, loader);
+	}
+
+	/**
+	 * <p>
+	 * The MOJO zip file is memory-mapped for computing the cache key, so a cache hit does not copy its contents to the heap.
+	 * </p>
+	 */
+	static
+	public MojoModel get(File file) throws Exception {
+		String key;
+
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			key = computeKey(buffer);
+		}
+
+		Callable<MojoModel> loader = () -> MojoModelUtil.readFrom(file, false);
+
+		return get(key, loader);
+	}
+
+	static
+	private MojoModel get(String key, Callable<MojoModel> loader) throws Exception {
+
+		synchronized(MojoModelCache.mojoModels){
+			MojoModel mojoModel = MojoModelCache.mojoModels.get(key);
+
+			if(mojoModel != null){
+				return mojoModel;
+			}
+		}
+
+		MojoModel mojoModel = loader.call();
+
+		synchronized(MojoModelCache.mojoModels){
+			MojoModel prevMojoModel = MojoModelCache.mojoModels.putIfAbsent(key, mojoModel);
+
+			if(prevMojoModel != null){
+				return prevMojoModel;
+			}
+		}
+
+		return mojoModel;
+	}
+
+	static
+	public int size(){
+
+		synchronized(MojoModelCache.mojoModels){
+			return MojoModelCache.mojoModels.size();
+		}
+	}
+
+	static
+	public void clear(){
+
+		synchronized(MojoModelCache.mojoModels){
+			MojoModelCache.mojoModels.clear();
+		}
+	}
+
+	static
+	public int getMaxSize(){
+		return MojoModelCache.maxSize;
+	}
+
+	/**
+	 * @param maxSize The maximum number of MOJO objects to retain.
+	 * Zero disables caching.
+	 */
+	static
+	public void setMaxSize(int maxSize){
+
+		if(maxSize < 0){
+			throw new IllegalArgumentException();
+		}
+
+		synchronized(MojoModelCache.mojoModels){
+			MojoModelCache.maxSize = maxSize;
+
+			Iterator<String> it = (MojoModelCache.mojoModels.keySet()).iterator();
+
+			for(int size = MojoModelCache.mojoModels.size(); size > maxSize; size--){
+				it.next();
+				it.remove();
+			}
+		}
+	}
+
+	static
+	private String computeKey(ByteBuffer buffer){
+		MessageDigest digest;
+
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch(NoSuchAlgorithmException nsae){
+			throw new IllegalStateException(nsae);
+		}
+
+		digest.update(buffer);
+
+		return (BaseEncoding.base16().lowerCase()).encode(digest.digest());
+	}
+
+	private static volatile int maxSize = 16;
+
+	private static final Map<String, MojoModel> mojoModels = new LinkedHashMap<String, MojoModel>(16, 0.75f, true){
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, MojoModel> entry){
+			return size() > MojoModelCache.maxSize;
+		}
+	};
+}
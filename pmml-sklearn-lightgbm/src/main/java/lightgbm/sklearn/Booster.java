@@ -19,8 +19,8 @@
 package lightgbm.sklearn;
 
 import java.io.BufferedReader;
-import java.io.StringReader;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 import org.dmg.pmml.PMML;
 import org.jpmml.lightgbm.GBDT;
@@ -43,10 +43,24 @@ public class Booster extends PythonObject implements Encodable {
 		return BoosterUtil.encodePMML(this);
 	}
 
+	/**
+	 * <p>
+	 * Loads the GBDT on the first invocation.
+	 * The model text is released after the GBDT has been loaded successfully.
+	 * </p>
+	 */
 	public GBDT getGBDT(){
 
 		if(this.gbdt == null){
 			this.gbdt = loadGBDT();
+
+			if(hasattr("handle")){
+				remove("handle");
+			} else
+
+			{
+				remove("_handle");
+			}
 		}
 
 		return this.gbdt;
@@ -55,9 +69,8 @@ public class Booster extends PythonObject implements Encodable {
 	private GBDT loadGBDT(){
 		String handle = getHandle();
 
-		try(BufferedReader reader = new BufferedReader(new StringReader(handle))){
-			Iterator<String> linesIt = reader.lines()
-				.iterator();
+		try {
+			Iterator<String> linesIt = lines(handle);
 
 			return LightGBMUtil.loadGBDT(linesIt);
 		} catch(Exception e){
@@ -65,6 +78,66 @@ public class Booster extends PythonObject implements Encodable {
 		}
 	}
 
+	/**
+	 * <p>
+	 * Splits the model text into lines lazily, the same way as {@link BufferedReader#lines()} does it.
+	 * Lines are sliced directly from the model text, without going through intermediate buffers.
+	 * </p>
+	 */
+	static
+	private Iterator<String> lines(String string){
+		Iterator<String> result = new Iterator<String>(){
+
+			private int position = 0;
+
+
+			@Override
+			public boolean hasNext(){
+				return this.position < string.length();
+			}
+
+			@Override
+			public String next(){
+				int begin = this.position;
+				int length = string.length();
+
+				if(begin >= length){
+					throw new NoSuchElementException();
+				}
+
+				int end = begin;
+
+				while(end < length){
+					char c = string.charAt(end);
+
+					if(c == '\n' || c == '\r'){
+						break;
+					}
+
+					end++;
+				}
+
+				int position = end;
+
+				if(position < length){
+					char c = string.charAt(position);
+
+					position++;
+
+					if(c == '\r' && position < length && string.charAt(position) == '\n'){
+						position++;
+					}
+				}
+
+				this.position = position;
+
+				return string.substring(begin, end);
+			}
+		};
+
+		return result;
+	}
+
 	public String getHandle(){
 
 		// LightGBM 3.3.5
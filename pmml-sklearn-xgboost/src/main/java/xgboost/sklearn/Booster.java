@@ -44,10 +44,22 @@ public class Booster extends PythonObject implements Encodable {
 		return BoosterUtil.encodePMML(this);
 	}
 
+	/**
+	 * <p>
+	 * Loads the learner on the first invocation, and returns the same learner on all subsequent invocations.
+	 * The byte order and charset arguments are only consulted on the first invocation.
+	 * </p>
+	 *
+	 * <p>
+	 * The raw handle is released after the learner has been loaded successfully.
+	 * </p>
+	 */
 	public Learner getLearner(ByteOrder byteOrder, String charset){
 
 		if(this.learner == null){
 			this.learner = loadLearner(byteOrder, charset);
+
+			remove("handle");
 		}
 
 		return this.learner;
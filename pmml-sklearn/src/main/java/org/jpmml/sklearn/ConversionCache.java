@@ -0,0 +1,476 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.ProtectionDomain;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.common.io.BaseEncoding;
+
+/**
+ * <p>
+ * A content-addressed on-disk cache of conversion results.
+ * </p>
+ *
+ * <p>
+ * Cache keys are SHA-256 digests of the pickle file content, the PMML options and the converter version.
+ * Cache entries are plain PMML files.
+ * The total size of cache entries is bounded.
+ * When the bound is exceeded, the least recently used cache entries are evicted.
+ * </p>
+ *
+ * <p>
+ * Cache entries are published using atomic file moves, and evicted under a file lock,
+ * so that the cache directory can be shared between threads and processes.
+ * </p>
+ */
+public class ConversionCache {
+
+	private File dir = null;
+
+	private long maxSize = Long.MAX_VALUE;
+
+
+	public ConversionCache(File dir, long maxSize){
+		setDir(dir);
+		setMaxSize(maxSize);
+
+		if(!dir.isDirectory() && !dir.mkdirs()){
+			throw new IllegalArgumentException("Directory " + dir.getAbsolutePath() + " could not be created");
+		}
+	}
+
+	/**
+	 * <p>
+	 * Looks up a cache entry, and marks it as recently used.
+	 * </p>
+	 *
+	 * @return The PMML file, or <code>null</code>.
+	 */
+	public File get(String key){
+		File file = getFile(key);
+
+		if(!file.isFile()){
+			return null;
+		}
+
+		file.setLastModified(System.currentTimeMillis());
+
+		return file;
+	}
+
+	/**
+	 * <p>
+	 * Looks up a cache entry, and maps its content into memory.
+	 * </p>
+	 *
+	 * @return A read-only memory-mapped buffer, or <code>null</code>.
+	 */
+	public MappedByteBuffer map(String key) throws IOException {
+		File file = get(key);
+
+		if(file == null){
+			return null;
+		}
+
+		return map(file);
+	}
+
+	/**
+	 * <p>
+	 * Copies the content of a cache entry to the specified output stream.
+	 * </p>
+	 *
+	 * @return <code>true</code> if the cache entry exists, <code>false</code> otherwise.
+	 */
+	public boolean copyTo(String key, OutputStream os) throws IOException {
+		File file = get(key);
+
+		if(file == null){
+			return false;
+		}
+
+		return copy(file, os);
+	}
+
+	public void put(String key, File pmmlFile) throws IOException {
+		File file = getFile(key);
+
+		File tmpFile = File.createTempFile(key, ".tmp", getDir());
+
+		try {
+			Files.copy(pmmlFile.toPath(), tmpFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+			try {
+				Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch(AtomicMoveNotSupportedException amnse){
+				Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			tmpFile.delete();
+		}
+
+		evict();
+	}
+
+	/**
+	 * <p>
+	 * Deletes least recently used cache entries until their total size fits into the bound.
+	 * </p>
+	 *
+	 * <p>
+	 * Eviction is serialized between threads using a JVM-wide lock,
+	 * and between processes using an exclusive lock on a lock file in the cache directory.
+	 * </p>
+	 */
+	public void evict() throws IOException {
+		File lockFile = new File(getDir(), ConversionCache.LOCK_FILE);
+
+		// A file lock is held on behalf of the whole JVM, so threads must be serialized separately
+		synchronized(ConversionCache.class){
+
+			try(FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE); FileLock lock = channel.lock()){
+				evictInternal();
+			}
+		}
+	}
+
+	private void evictInternal(){
+		File[] files = getDir().listFiles((dir, name) -> name.endsWith(ConversionCache.EXTENSION));
+
+		if(files == null){
+			return;
+		}
+
+		long size = 0L;
+
+		for(File file : files){
+			size += file.length();
+		}
+
+		long maxSize = getMaxSize();
+
+		if(size <= maxSize){
+			return;
+		}
+
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+
+		for(File file : files){
+
+			if(size <= maxSize){
+				break;
+			}
+
+			long length = file.length();
+
+			if(file.delete()){
+				size -= length;
+			}
+		}
+	}
+
+	private File getFile(String key){
+		return new File(getDir(), key + ConversionCache.EXTENSION);
+	}
+
+	public File getDir(){
+		return this.dir;
+	}
+
+	private void setDir(File dir){
+		this.dir = Objects.requireNonNull(dir);
+	}
+
+	public long getMaxSize(){
+		return this.maxSize;
+	}
+
+	private void setMaxSize(long maxSize){
+
+		if(maxSize < 0){
+			throw new IllegalArgumentException();
+		}
+
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @return A read-only memory-mapped buffer, or <code>null</code> if the file was evicted after the lookup.
+	 */
+	static
+	MappedByteBuffer map(File file) throws IOException {
+
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} catch(NoSuchFileException nsfe){
+			return null;
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if the file was copied, <code>false</code> if the file was evicted after the lookup.
+	 */
+	static
+	boolean copy(File file, OutputStream os) throws IOException {
+
+		try {
+			Files.copy(file.toPath(), os);
+		} catch(NoSuchFileException nsfe){
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * Computes the cache key for a conversion.
+	 * </p>
+	 *
+	 * <p>
+	 * PMML options are normalized by dropping <code>null</code>-valued entries and sorting the rest by name,
+	 * so that the cache key does not depend on the iteration order of the options map.
+	 * Options that do not affect the content of the PMML document are dropped as well.
+	 * </p>
+	 *
+	 * @param transientOptions The names of PMML options that affect how the PMML document is produced, but not its content.
+	 */
+	static
+	public String computeKey(File pickleFile, Map<String, ?> pmmlOptions, Set<String> transientOptions, String version) throws IOException {
+		MessageDigest digest = createDigest();
+
+		update(digest, pickleFile.toPath());
+
+		Map<String, Object> normalizedPmmlOptions = new TreeMap<>();
+
+		Collection<? extends Map.Entry<String, ?>> entries = pmmlOptions.entrySet();
+		for(Map.Entry<String, ?> entry : entries){
+			String key = entry.getKey();
+			Object value = entry.getValue();
+
+			if(value == null || transientOptions.contains(key)){
+				continue;
+			}
+
+			normalizedPmmlOptions.put(key, value);
+		}
+
+		digest.update((byte)0);
+		digest.update((normalizedPmmlOptions.toString()).getBytes(StandardCharsets.UTF_8));
+
+		digest.update((byte)0);
+		digest.update(String.valueOf(version).getBytes(StandardCharsets.UTF_8));
+
+		return (BaseEncoding.base16().lowerCase()).encode(digest.digest());
+	}
+
+	/**
+	 * <p>
+	 * Returns the converter version, which is the SHA-256 digest of the converter code.
+	 * </p>
+	 *
+	 * <p>
+	 * The converter code is the set of JAR files (or class directories) that contain a <code>META-INF/sklearn2pmml.properties</code> class registry resource,
+	 * plus the one that contains this class.
+	 * It covers the core module and all loaded converter modules (eg. XGBoost, LightGBM, H2O.ai),
+	 * irrespective of whether they are packaged into a single uber-JAR, or loaded separately from a library classpath or an IDE.
+	 * Unlike the implementation version, it is defined outside of JAR files,
+	 * and it changes between two builds of the same SNAPSHOT version.
+	 * </p>
+	 */
+	static
+	public String getVersion() throws IOException {
+
+		if(ConversionCache.version == null){
+			ConversionCache.version = computeVersion();
+		}
+
+		return ConversionCache.version;
+	}
+
+	static
+	private String computeVersion() throws IOException {
+		MessageDigest digest = createDigest();
+
+		Set<Path> locations = getCodeLocations();
+		for(Path location : locations){
+
+			if(Files.isDirectory(location)){
+				List<Path> files;
+
+				try(Stream<Path> stream = Files.walk(location)){
+					files = stream
+						.filter(Files::isRegularFile)
+						.sorted()
+						.collect(Collectors.toList());
+				}
+
+				for(Path file : files){
+					digest.update(((location.relativize(file)).toString()).getBytes(StandardCharsets.UTF_8));
+					digest.update((byte)0);
+
+					update(digest, file);
+				}
+			} else
+
+			{
+				update(digest, location);
+			}
+
+			digest.update((byte)0);
+		}
+
+		return (BaseEncoding.base16().lowerCase()).encode(digest.digest());
+	}
+
+	static
+	Set<Path> getCodeLocations() throws IOException {
+		Set<Path> result = new TreeSet<>();
+
+		ProtectionDomain protectionDomain = ConversionCache.class.getProtectionDomain();
+
+		CodeSource codeSource = protectionDomain.getCodeSource();
+		if(codeSource == null || codeSource.getLocation() == null){
+			throw new IOException("The location of converter code is not known");
+		}
+
+		result.add(toPath(codeSource.getLocation()));
+
+		ClassLoader clazzLoader = ConversionCache.class.getClassLoader();
+
+		Enumeration<URL> urls = clazzLoader.getResources(ConversionCache.REGISTRY_RESOURCE);
+		while(urls.hasMoreElements()){
+			URL url = urls.nextElement();
+
+			result.add(toCodeLocation(url));
+		}
+
+		return result;
+	}
+
+	/**
+	 * @param url The URL of a class registry resource.
+	 *
+	 * @return The JAR file or the class directory that contains the resource.
+	 */
+	static
+	private Path toCodeLocation(URL url) throws IOException {
+		String protocol = url.getProtocol();
+
+		switch(protocol){
+			case "jar":
+				{
+					String path = url.getPath();
+
+					int index = path.indexOf("!/");
+					if(index < 0){
+						throw new IOException("Converter code location " + url + " is not supported");
+					}
+
+					return toPath(new URL(path.substring(0, index)));
+				}
+			case "file":
+				{
+					Path path = toPath(url);
+
+					// Strip the "META-INF/sklearn2pmml.properties" suffix
+					return (path.getParent()).getParent();
+				}
+			default:
+				throw new IOException("Converter code location " + url + " is not supported");
+		}
+	}
+
+	static
+	private Path toPath(URL url) throws IOException {
+
+		try {
+			return Paths.get(url.toURI());
+		} catch(URISyntaxException use){
+			throw new IOException(use);
+		}
+	}
+
+	static
+	private MessageDigest createDigest(){
+
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch(NoSuchAlgorithmException nsae){
+			throw new IllegalStateException(nsae);
+		}
+	}
+
+	static
+	private void update(MessageDigest digest, Path path) throws IOException {
+		byte[] buffer = new byte[64 * 1024];
+
+		try(InputStream is = Files.newInputStream(path)){
+
+			while(true){
+				int count = is.read(buffer);
+				if(count < 0){
+					break;
+				}
+
+				digest.update(buffer, 0, count);
+			}
+		}
+	}
+
+	private static volatile String version = null;
+
+	private static final String REGISTRY_RESOURCE = "META-INF/sklearn2pmml.properties";
+
+	private static final String LOCK_FILE = ".lock";
+
+	private static final String EXTENSION = ".pmml";
+}
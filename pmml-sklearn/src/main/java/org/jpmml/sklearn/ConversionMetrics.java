@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * A per-thread recorder of elapsed time and allocated heap space for conversion phases.
+ * </p>
+ *
+ * <p>
+ * Metrics collection is disabled by default.
+ * When disabled, the {@link #open(String, String)} method returns a shared no-op span,
+ * and the instrumented code paths do not incur any measurable overhead.
+ * </p>
+ *
+ * <p>
+ * Allocated heap space is measured using thread-level allocation counters.
+ * Work that is delegated to other threads (eg. parallel tree ensemble encoding) is reflected in elapsed time, but not in allocated heap space.
+ * </p>
+ */
+public class ConversionMetrics {
+
+	private List<Entry> entries = new ArrayList<>();
+
+	private int depth = 0;
+
+
+	private ConversionMetrics(){
+	}
+
+	public List<Entry> getEntries(){
+		return Collections.unmodifiableList(this.entries);
+	}
+
+	private Span openSpan(String phase, String name){
+		Entry entry = new Entry(phase, name, this.depth);
+
+		this.entries.add(entry);
+
+		this.depth++;
+
+		return new Span(){
+
+			private long beginNanos = System.nanoTime();
+
+			private long beginBytes = getAllocatedBytes();
+
+
+			@Override
+			public void close(){
+				long endNanos = System.nanoTime();
+				long endBytes = getAllocatedBytes();
+
+				entry.nanos = (endNanos - this.beginNanos);
+				entry.allocatedBytes = (endBytes >= 0 && this.beginBytes >= 0) ? (endBytes - this.beginBytes) : -1L;
+
+				ConversionMetrics.this.depth--;
+			}
+		};
+	}
+
+	/**
+	 * <p>
+	 * Enables metrics collection for the current thread.
+	 * </p>
+	 */
+	static
+	public ConversionMetrics activate(){
+		ConversionMetrics metrics = new ConversionMetrics();
+
+		ConversionMetrics.current.set(metrics);
+
+		return metrics;
+	}
+
+	static
+	public void deactivate(){
+		ConversionMetrics.current.remove();
+	}
+
+	static
+	public ConversionMetrics getCurrent(){
+		return ConversionMetrics.current.get();
+	}
+
+	static
+	public Span open(String phase, String name){
+		ConversionMetrics metrics = getCurrent();
+
+		if(metrics == null){
+			return Span.NOOP;
+		}
+
+		return metrics.openSpan(phase, name);
+	}
+
+	static
+	private long getAllocatedBytes(){
+		ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+		if(threadMXBean instanceof com.sun.management.ThreadMXBean){
+			com.sun.management.ThreadMXBean extThreadMXBean = (com.sun.management.ThreadMXBean)threadMXBean;
+
+			if(extThreadMXBean.isThreadAllocatedMemorySupported() && extThreadMXBean.isThreadAllocatedMemoryEnabled()){
+				return extThreadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+
+		return -1L;
+	}
+
+	static
+	public class Entry {
+
+		private String phase = null;
+
+		private String name = null;
+
+		private int depth = 0;
+
+		private long nanos = -1L;
+
+		private long allocatedBytes = -1L;
+
+
+		private Entry(String phase, String name, int depth){
+			this.phase = phase;
+			this.name = name;
+			this.depth = depth;
+		}
+
+		public String getPhase(){
+			return this.phase;
+		}
+
+		public String getName(){
+			return this.name;
+		}
+
+		/**
+		 * @return The nesting depth of this entry, relative to the first entry.
+		 */
+		public int getDepth(){
+			return this.depth;
+		}
+
+		public long getNanos(){
+			return this.nanos;
+		}
+
+		/**
+		 * @return The number of bytes allocated on the current thread, or <code>-1</code> if unknown.
+		 */
+		public long getAllocatedBytes(){
+			return this.allocatedBytes;
+		}
+	}
+
+	static
+	public interface Span extends AutoCloseable {
+
+		@Override
+		void close();
+
+		Span NOOP = new Span(){
+
+			@Override
+			public void close(){
+			}
+		};
+	}
+
+	private static final ThreadLocal<ConversionMetrics> current = new ThreadLocal<>();
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn;
+
+import java.util.function.Function;
+
+import org.jpmml.converter.ContinuousFeature;
+import org.jpmml.converter.Feature;
+
+/**
+ * <p>
+ * A feature, whose PMML representation is created when (and if) the feature is consumed by a downstream estimator.
+ * </p>
+ *
+ * <p>
+ * Model-level post-processing (eg. feature importances) must skip features that have not been encoded,
+ * because they do not exist in the PMML document.
+ * </p>
+ */
+public interface LazyFeature {
+
+	/**
+	 * @return <code>true</code> if the PMML representation of this feature has been created, <code>false</code> otherwise.
+	 */
+	boolean isEncoded();
+
+	/**
+	 * <p>
+	 * Returns a new lazy feature, which applies the function to this feature when consumed.
+	 * </p>
+	 *
+	 * <p>
+	 * The new feature is encoded whenever this feature is encoded.
+	 * </p>
+	 */
+	Feature transform(Function<ContinuousFeature, ContinuousFeature> function);
+}
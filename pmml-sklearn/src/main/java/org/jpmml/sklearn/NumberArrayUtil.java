@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn;
+
+import java.util.List;
+import java.util.RandomAccess;
+
+import com.google.common.primitives.UnsignedInts;
+import org.jpmml.converter.ValueUtil;
+
+/**
+ * <p>
+ * Utility methods for converting unpickled Numpy array content to Java primitive arrays.
+ * </p>
+ *
+ * <p>
+ * Unlike Guava's {@link com.google.common.primitives.Ints#toArray(java.util.Collection)}
+ * and {@link com.google.common.primitives.Doubles#toArray(java.util.Collection)},
+ * these methods copy elements straight from the list,
+ * without allocating an intermediate <code>Object[]</code> snapshot.
+ * This makes a difference when converting millions of tree node attributes.
+ * </p>
+ */
+public class NumberArrayUtil {
+
+	private NumberArrayUtil(){
+	}
+
+	static
+	public int[] toIntArray(List<?> values){
+
+		if(values == null){
+			return null;
+		}
+
+		int[] result = new int[values.size()];
+
+		if(values instanceof RandomAccess){
+
+			for(int i = 0; i < result.length; i++){
+				result[i] = ((Number)values.get(i)).intValue();
+			}
+		} else
+
+		{
+			int i = 0;
+
+			for(Object value : values){
+				result[i++] = ((Number)value).intValue();
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Converts <code>numpy.uint32</code> values, which are unpickled as {@link Long} values, to Java signed int values.
+	 * </p>
+	 */
+	static
+	public int[] toUnsignedIntArray(List<?> values){
+
+		if(values == null){
+			return null;
+		}
+
+		int[] result = new int[values.size()];
+
+		int i = 0;
+
+		for(Object value : values){
+
+			if(value instanceof Long){
+				Long longValue = (Long)value;
+
+				result[i++] = UnsignedInts.checkedCast(longValue);
+			} else
+
+			{
+				result[i++] = ValueUtil.asInt((Number)value);
+			}
+		}
+
+		return result;
+	}
+
+	static
+	public double[] toDoubleArray(List<?> values){
+
+		if(values == null){
+			return null;
+		}
+
+		double[] result = new double[values.size()];
+
+		if(values instanceof RandomAccess){
+
+			for(int i = 0; i < result.length; i++){
+				result[i] = ((Number)values.get(i)).doubleValue();
+			}
+		} else
+
+		{
+			int i = 0;
+
+			for(Object value : values){
+				result[i++] = ((Number)value).doubleValue();
+			}
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * A per-thread record of the PMML output file, and of the sidecar files that are written next to it during conversion.
+ * </p>
+ *
+ * <p>
+ * Relative sidecar file paths are resolved against the directory of the PMML output file,
+ * which is where PMML consumers will look for them.
+ * When no output context is active, relative paths are resolved against the current working directory.
+ * </p>
+ */
+public class OutputContext {
+
+	private File output = null;
+
+	private List<File> sidecarFiles = new ArrayList<>();
+
+
+	private OutputContext(File output){
+		this.output = output;
+	}
+
+	public File getOutput(){
+		return this.output;
+	}
+
+	/**
+	 * @return The sidecar files that have been written so far, in writing order.
+	 */
+	public List<File> getSidecarFiles(){
+		return Collections.unmodifiableList(this.sidecarFiles);
+	}
+
+	/**
+	 * <p>
+	 * Enables output tracking for the current thread.
+	 * </p>
+	 *
+	 * @param output The PMML output file.
+	 */
+	static
+	public OutputContext activate(File output){
+		OutputContext context = new OutputContext(output);
+
+		OutputContext.current.set(context);
+
+		return context;
+	}
+
+	static
+	public void deactivate(){
+		OutputContext.current.remove();
+	}
+
+	static
+	public OutputContext getCurrent(){
+		return OutputContext.current.get();
+	}
+
+	/**
+	 * <p>
+	 * Resolves the location of a sidecar file, and registers it with the current output context (if any).
+	 * </p>
+	 *
+	 * @param location An absolute path, or a path relative to the PMML output file.
+	 */
+	static
+	public File resolveSidecarFile(String location){
+		File file = new File(location);
+
+		OutputContext context = getCurrent();
+
+		if(context != null){
+
+			if(!file.isAbsolute()){
+				File dir = (context.output.getAbsoluteFile()).getParentFile();
+
+				file = new File(dir, location);
+			}
+
+			context.sidecarFiles.add(file);
+		}
+
+		return file;
+	}
+
+	private static final ThreadLocal<OutputContext> current = new ThreadLocal<>();
+}
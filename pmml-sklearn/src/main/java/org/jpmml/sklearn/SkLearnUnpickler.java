@@ -24,20 +24,37 @@ import java.util.Objects;
 import net.razorvine.pickle.Opcodes;
 import net.razorvine.pickle.PickleException;
 import net.razorvine.pickle.objects.ClassDict;
+import org.jpmml.python.ClassDictUtil;
 import org.jpmml.python.JoblibUnpickler;
 import org.jpmml.python.Storage;
+import org.jpmml.sklearn.jfr.UnpickleEvent;
+import sklearn.ensemble.hist_gradient_boosting.TreePredictor;
+import sklearn.tree.Tree;
 import sklearn2pmml.SkLearn2PMMLFields;
 
 public class SkLearnUnpickler extends JoblibUnpickler {
 
 	@Override
 	public Object load(Storage storage){
+		UnpickleEvent event = new UnpickleEvent();
+		event.begin();
+
+		Object result;
 
 		try {
-			return super.load(storage);
+			result = super.load(storage);
 		} catch(PickleException | IOException e){
 			throw new SkLearnException("Failed to load Python object", e);
 		}
+
+		event.end();
+
+		if(event.shouldCommit()){
+			event.objectClass = ClassDictUtil.formatClass(result);
+			event.commit();
+		}
+
+		return result;
 	}
 
 	@Override
@@ -56,6 +73,18 @@ public class SkLearnUnpickler extends JoblibUnpickler {
 
 					replaceHead(object);
 				}
+			} else
+
+			if(head instanceof Tree){
+				Tree tree = (Tree)head;
+
+				tree.compact();
+			} else
+
+			if(head instanceof TreePredictor){
+				TreePredictor treePredictor = (TreePredictor)head;
+
+				treePredictor.compact();
 			}
 		}
 
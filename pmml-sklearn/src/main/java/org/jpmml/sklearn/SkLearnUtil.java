@@ -23,13 +23,25 @@ public class SkLearnUtil {
 	private SkLearnUtil(){
 	}
 
+	/**
+	 * <p>
+	 * Initializes Python class registries.
+	 * This method is safe to call from multiple threads concurrently.
+	 * </p>
+	 */
 	static
 	public void initOnce(){
 
 		if(!SkLearnUtil.initialized){
-			init();
 
-			SkLearnUtil.initialized = true;
+			synchronized(SkLearnUtil.class){
+
+				if(!SkLearnUtil.initialized){
+					init();
+
+					SkLearnUtil.initialized = true;
+				}
+			}
 		}
 	}
 
@@ -39,5 +51,5 @@ public class SkLearnUtil {
 		SkLearnEncoder encoder = new SkLearnEncoder();
 	}
 
-	private static boolean initialized = false;
+	private static volatile boolean initialized = false;
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.jpmml.sklearn.StepEncode")
+@Label("Step Encode")
+@Description("Encoding a transformer or an estimator step")
+@Category({"JPMML-SkLearn"})
+@StackTrace(false)
+public class StepEncodeEvent extends Event {
+
+	@Label("Step Class")
+	public String stepClass;
+
+	@Label("Input Features")
+	public int inputFeatures;
+
+	@Label("Output Features")
+	@Description("The number of output features, or -1 for estimators")
+	public int outputFeatures = -1;
+
+	@Label("Model Class")
+	@Description("The PMML model element, or null for transformers")
+	public String modelClass;
+}
@@ -34,6 +34,7 @@ import org.jpmml.python.ClassDictUtil;
 import org.jpmml.sklearn.EncodableUtil;
 import org.jpmml.sklearn.SkLearnEncoder;
 import org.jpmml.sklearn.SkLearnException;
+import org.jpmml.sklearn.jfr.StepEncodeEvent;
 
 abstract
 public class Composite extends Step implements Castable, HasFeatureNamesIn, HasHead, HasTail {
@@ -145,7 +146,21 @@ public class Composite extends Step implements Castable, HasFeatureNamesIn, HasH
 			List<? extends Transformer> transformers = getTransformers();
 
 			for(Transformer transformer : transformers){
+				StepEncodeEvent event = new StepEncodeEvent();
+				event.begin();
+
+				int inputFeatures = features.size();
+
 				features = transformer.encode(this, features, encoder);
+
+				event.end();
+
+				if(event.shouldCommit()){
+					event.stepClass = transformer.getClassName();
+					event.inputFeatures = inputFeatures;
+					event.outputFeatures = features.size();
+					event.commit();
+				}
 			}
 		}
 
@@ -45,8 +45,11 @@ import org.jpmml.converter.Schema;
 import org.jpmml.converter.UnsupportedLabelException;
 import org.jpmml.python.Attribute;
 import org.jpmml.python.ClassDictUtil;
+import org.jpmml.sklearn.ConversionMetrics;
+import org.jpmml.sklearn.LazyFeature;
 import org.jpmml.sklearn.SkLearnEncoder;
 import org.jpmml.sklearn.SkLearnException;
+import org.jpmml.sklearn.jfr.StepEncodeEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sklearn2pmml.Customization;
@@ -145,7 +148,25 @@ public class Estimator extends Step implements HasNumberOfOutputs, HasPMMLOption
 		try {
 			setParent(parent);
 
-			return encodeInternal(schema);
+			StepEncodeEvent event = new StepEncodeEvent();
+			event.begin();
+
+			Model model;
+
+			try(ConversionMetrics.Span span = ConversionMetrics.open("encode", getClassName())){
+				model = encodeInternal(schema);
+			}
+
+			event.end();
+
+			if(event.shouldCommit()){
+				event.stepClass = getClassName();
+				event.inputFeatures = (schema.getFeatures()).size();
+				event.modelClass = (model.getClass()).getSimpleName();
+				event.commit();
+			}
+
+			return model;
 		} catch(SkLearnException se){
 			throw se.ensureContext(this);
 		} catch(Exception e){
@@ -260,36 +281,14 @@ public class Estimator extends Step implements HasNumberOfOutputs, HasPMMLOption
 				Feature feature = features.get(i);
 				Number featureImportance = featureImportances.get(i);
 
-				encoder.addFeatureImportance(model, feature, featureImportance);
-			}
-		}
-	}
-
-	/**
-	 * Looks up an option starting from this estimator,
-	 * and ascending towards the root of the step graph for as long as the parent step is also an estimator.
-	 * Consequently, an option that is set on a meta-estimator will be visible to all its constituent estimators (unless overridden by them).
-	 */
-	public Object getPMMLOption(String key, Object defaultValue){
-		Object value = resolvePMMLOption(key, true);
-
-		if(value != Step.PMML_VALUE_UNKNOWN){
-			return value;
-		}
-
-		Step parent = getParent();
-
-		while(canAscend(parent)){
-			value = parent.resolvePMMLOption(key, false);
+				// Lazily encoded features that were never consumed do not exist in the PMML document
+				if(feature instanceof LazyFeature && !((LazyFeature)feature).isEncoded()){
+					continue;
+				}
 
-			if(value != Step.PMML_VALUE_UNKNOWN){
-				return value;
+				encoder.addFeatureImportance(model, feature, featureImportance);
 			}
-
-			parent = parent.getParent();
 		}
-
-		return defaultValue;
 	}
 
 	@Override
@@ -496,20 +495,6 @@ public class Estimator extends Step implements HasNumberOfOutputs, HasPMMLOption
 		return applyFields;
 	}
 
-	static
-	private boolean canAscend(Step step){
-
-		if(step instanceof Estimator){
-			return true;
-		} else
-
-		if((step instanceof Transformer) && (step instanceof HasEstimator)){
-			return true;
-		}
-
-		return false;
-	}
-
 	static
 	protected String extractArguments(String function, String name){
 
@@ -206,6 +206,33 @@ public class Step extends PythonObject implements HasNumberOfFeatures, HasType {
 		}
 	}
 
+	/**
+	 * Looks up an option starting from this step,
+	 * and ascending towards the root of the step graph for as long as the parent step is an estimator (or an estimator-wrapping transformer).
+	 * Consequently, an option that is set on a meta-estimator will be visible to all its constituent estimators (unless overridden by them).
+	 */
+	public Object getPMMLOption(String key, Object defaultValue){
+		Object value = resolvePMMLOption(key, true);
+
+		if(value != Step.PMML_VALUE_UNKNOWN){
+			return value;
+		}
+
+		Step parent = getParent();
+
+		while(canAscend(parent)){
+			value = parent.resolvePMMLOption(key, false);
+
+			if(value != Step.PMML_VALUE_UNKNOWN){
+				return value;
+			}
+
+			parent = parent.getParent();
+		}
+
+		return defaultValue;
+	}
+
 	protected Object resolvePMMLOption(String key, boolean useSurrogate){
 		return Step.PMML_VALUE_UNKNOWN;
 	}
@@ -218,6 +245,20 @@ public class Step extends PythonObject implements HasNumberOfFeatures, HasType {
 		this.parent = parent;
 	}
 
+	static
+	private boolean canAscend(Step step){
+
+		if(step instanceof Estimator){
+			return true;
+		} else
+
+		if((step instanceof Transformer) && (step instanceof HasEstimator)){
+			return true;
+		}
+
+		return false;
+	}
+
 	/**
 	 * The parent step for physically or logically &quot;topmost&quot; steps in the main step graph.
 	 * A physically topmost step is a standalone Scikit-Learn object that the user passed to the converter.
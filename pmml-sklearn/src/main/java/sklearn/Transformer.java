@@ -35,6 +35,7 @@ import org.jpmml.python.Attribute;
 import org.jpmml.python.ClassDictUtil;
 import org.jpmml.python.DTypeCastFunction;
 import org.jpmml.python.TypeInfo;
+import org.jpmml.sklearn.ConversionMetrics;
 import org.jpmml.sklearn.SkLearnEncoder;
 import org.jpmml.sklearn.SkLearnException;
 import sklearn2pmml.HasPMMLName;
@@ -84,7 +85,9 @@ public class Transformer extends Step implements HasPMMLName<Transformer> {
 		try {
 			setParent(parent);
 
-			return encodeInternal(features, encoder);
+			try(ConversionMetrics.Span span = ConversionMetrics.open("encode", getClassName())){
+				return encodeInternal(features, encoder);
+			}
 		} catch(SkLearnException se){
 			throw se.ensureContext(this);
 		} catch(Exception e){
@@ -52,6 +52,8 @@ public class ForestUtil {
 		MiningModel miningModel = new MiningModel(miningFunction, ModelUtil.createMiningSchema(schema))
 			.setSegmentation(MiningModelUtil.createSegmentation(multipleModelMethod, Segmentation.MissingPredictionTreatment.RETURN_MISSING, treeModels));
 
+		TreeEnsembleUtil.deduplicateSegments(estimator, miningModel);
+
 		return miningModel;
 	}
 }
\ No newline at end of file
@@ -49,6 +49,8 @@ public class GradientBoostingUtil {
 			.setSegmentation(MiningModelUtil.createSegmentation(Segmentation.MultipleModelMethod.SUM, Segmentation.MissingPredictionTreatment.RETURN_MISSING, treeModels))
 			.setTargets(ModelUtil.createRescaleTargets(learningRate, initialPrediction, continuousLabel));
 
+		TreeEnsembleUtil.deduplicateSegments(estimator, miningModel);
+
 		return miningModel;
 	}
 }
\ No newline at end of file
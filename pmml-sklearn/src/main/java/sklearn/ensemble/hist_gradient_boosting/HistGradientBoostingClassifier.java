@@ -36,6 +36,7 @@ import org.jpmml.python.PythonObject;
 import sklearn.HasMultiDecisionFunctionField;
 import sklearn.SkLearnClassifier;
 import sklearn.compose.ColumnTransformer;
+import sklearn.tree.HasTreeOptions;
 
 public class HistGradientBoostingClassifier extends SkLearnClassifier implements HasMultiDecisionFunctionField {
 
@@ -61,6 +62,8 @@ public class HistGradientBoostingClassifier extends SkLearnClassifier implements
 			schema = HistGradientBoostingUtil.preprocess(preprocessor, schema);
 		}
 
+		Boolean parallel = (Boolean)getPMMLOption(HasTreeOptions.OPTION_PARALLEL, Boolean.FALSE);
+
 		Schema segmentSchema = schema.toAnonymousRegressorSchema(DataType.DOUBLE);
 
 		CategoricalLabel categoricalLabel = schema.requireCategoricalLabel();
@@ -68,7 +71,7 @@ public class HistGradientBoostingClassifier extends SkLearnClassifier implements
 		MiningModel miningModel;
 
 		if(categoricalLabel.size() == 2){
-			Model model = HistGradientBoostingUtil.encodeHistGradientBoosting(predictors, binMapper, baselinePredictions, 0, segmentSchema)
+			Model model = HistGradientBoostingUtil.encodeHistGradientBoosting(predictors, binMapper, baselinePredictions, 0, parallel, segmentSchema)
 				.setOutput(ModelUtil.createPredictedOutput(getMultiDecisionFunctionField(categoricalLabel.getValue(1)), OpType.CONTINUOUS, DataType.DOUBLE));
 
 			miningModel = MiningModelUtil.createBinaryLogisticClassification(model, 1d, 0d, RegressionModel.NormalizationMethod.LOGIT, false, schema);
@@ -80,7 +83,7 @@ public class HistGradientBoostingClassifier extends SkLearnClassifier implements
 			List<Model> models = new ArrayList<>();
 
 			for(int i = 0, columns = categoricalLabel.size(); i < columns; i++){
-				Model model = HistGradientBoostingUtil.encodeHistGradientBoosting(predictors, binMapper, baselinePredictions, i, segmentSchema)
+				Model model = HistGradientBoostingUtil.encodeHistGradientBoosting(predictors, binMapper, baselinePredictions, i, parallel, segmentSchema)
 					.setOutput(ModelUtil.createPredictedOutput(getMultiDecisionFunctionField(categoricalLabel.getValue(i)), OpType.CONTINUOUS, DataType.DOUBLE));
 
 				models.add(model);
@@ -27,6 +27,7 @@ import org.jpmml.python.AttributeException;
 import org.jpmml.python.ClassDictUtil;
 import sklearn.SkLearnRegressor;
 import sklearn.compose.ColumnTransformer;
+import sklearn.tree.HasTreeOptions;
 
 public class HistGradientBoostingRegressor extends SkLearnRegressor {
 
@@ -45,7 +46,9 @@ public class HistGradientBoostingRegressor extends SkLearnRegressor {
 			schema = HistGradientBoostingUtil.preprocess(preprocessor, schema);
 		}
 
-		return HistGradientBoostingUtil.encodeHistGradientBoosting(predictors, binMapper, Collections.singletonList(baselinePrediction), 0, schema);
+		Boolean parallel = (Boolean)getPMMLOption(HasTreeOptions.OPTION_PARALLEL, Boolean.FALSE);
+
+		return HistGradientBoostingUtil.encodeHistGradientBoosting(predictors, binMapper, Collections.singletonList(baselinePrediction), 0, parallel, schema);
 	}
 
 	public Number getBaselinePrediction(){
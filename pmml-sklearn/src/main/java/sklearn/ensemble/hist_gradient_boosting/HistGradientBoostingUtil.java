@@ -47,6 +47,7 @@ import sklearn.Step;
 import sklearn.Transformer;
 import sklearn.compose.ColumnTransformer;
 import sklearn.preprocessing.OrdinalEncoder;
+import sklearn.tree.TreeEnsembleUtil;
 
 public class HistGradientBoostingUtil {
 
@@ -178,29 +179,42 @@ public class HistGradientBoostingUtil {
 
 	static
 	public MiningModel encodeHistGradientBoosting(List<List<TreePredictor>> predictors, BinMapper binMapper, List<? extends Number> baselinePredictions, int column, Schema schema){
+		return encodeHistGradientBoosting(predictors, binMapper, baselinePredictions, column, false, schema);
+	}
+
+	static
+	public MiningModel encodeHistGradientBoosting(List<List<TreePredictor>> predictors, BinMapper binMapper, List<? extends Number> baselinePredictions, int column, boolean parallel, Schema schema){
 		List<TreePredictor> treePredictors = predictors.stream()
 			.map(predictor -> predictor.get(column))
 			.collect(Collectors.toList());
 
 		Number baselinePrediction = baselinePredictions.get(column);
 
-		return encodeHistGradientBoosting(treePredictors, binMapper, baselinePrediction, schema);
+		return encodeHistGradientBoosting(treePredictors, binMapper, baselinePrediction, parallel, schema);
 	}
 
 	static
 	public MiningModel encodeHistGradientBoosting(List<TreePredictor> treePredictors, BinMapper binMapper, Number baselinePrediction, Schema schema){
-		ContinuousLabel continuousLabel = schema.requireContinuousLabel();
+		return encodeHistGradientBoosting(treePredictors, binMapper, baselinePrediction, false, schema);
+	}
 
-		PredicateManager predicateManager = new PredicateManager();
+	static
+	public MiningModel encodeHistGradientBoosting(List<TreePredictor> treePredictors, BinMapper binMapper, Number baselinePrediction, boolean parallel, Schema schema){
+		ContinuousLabel continuousLabel = schema.requireContinuousLabel();
 
 		Schema segmentSchema = schema.toAnonymousRegressorSchema(DataType.DOUBLE);
 
-		List<TreeModel> treeModels = new ArrayList<>();
+		List<TreeModel> treeModels;
 
-		for(TreePredictor treePredictor : treePredictors){
-			TreeModel treeModel = TreePredictorUtil.encodeTreeModel(treePredictor, binMapper, predicateManager, segmentSchema);
+		if(parallel){
+			// Derived fields must be created before entering the parallel section
+			TreePredictorUtil.ensureContinuousFeatures(treePredictors, segmentSchema);
+
+			treeModels = TreeEnsembleUtil.encodeInParallel(treePredictors, chunkTreePredictors -> encodeTreeModels(chunkTreePredictors, binMapper, segmentSchema));
+		} else
 
-			treeModels.add(treeModel);
+		{
+			treeModels = encodeTreeModels(treePredictors, binMapper, segmentSchema);
 		}
 
 		MiningModel miningModel = new MiningModel(MiningFunction.REGRESSION, ModelUtil.createMiningSchema(continuousLabel))
@@ -209,4 +223,19 @@ public class HistGradientBoostingUtil {
 
 		return miningModel;
 	}
-}
\ No newline at end of file
+
+	static
+	private List<TreeModel> encodeTreeModels(List<? extends TreePredictor> treePredictors, BinMapper binMapper, Schema schema){
+		PredicateManager predicateManager = new PredicateManager();
+
+		List<TreeModel> result = new ArrayList<>(treePredictors.size());
+
+		for(TreePredictor treePredictor : treePredictors){
+			TreeModel treeModel = TreePredictorUtil.encodeTreeModel(treePredictor, binMapper, predicateManager, schema);
+
+			result.add(treeModel);
+		}
+
+		return result;
+	}
+}
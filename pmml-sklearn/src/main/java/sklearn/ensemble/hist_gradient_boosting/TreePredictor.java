@@ -19,15 +19,12 @@
 package sklearn.ensemble.hist_gradient_boosting;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 
-import com.google.common.base.Function;
-import com.google.common.collect.Lists;
-import com.google.common.primitives.Doubles;
-import com.google.common.primitives.Ints;
-import com.google.common.primitives.UnsignedInts;
-import org.jpmml.converter.ValueUtil;
+import numpy.core.NDArray;
 import org.jpmml.python.PythonObject;
+import org.jpmml.sklearn.NumberArrayUtil;
 
 public class TreePredictor extends PythonObject {
 
@@ -42,101 +39,135 @@ public class TreePredictor extends PythonObject {
 			return null;
 		}
 
-		List<Number> values = getNumberArray("raw_left_cat_bitsets");
-
-		Function<Number, Integer> function = new Function<Number, Integer>(){
-
-			@Override
-			public Integer apply(Number value){
-
-				// numpy.uint32 values
-				if(value instanceof Long){
-					Long longValue = (Long)value;
-
-					return UnsignedInts.checkedCast(longValue);
-				}
-
-				return ValueUtil.asInt(value);
-			}
-		};
-
-		values = Lists.transform(values, function);
-
-		return Ints.toArray(values);
+		// numpy.uint32 values
+		return NumberArrayUtil.toUnsignedIntArray(getNumberArray("raw_left_cat_bitsets"));
 	}
 
 	public double[] getValues(){
-		return Doubles.toArray(getNodeAttribute("value"));
+		return getDoubleNodeAttribute("value");
 	}
 
 	public int[] getCount(){
-		return Ints.toArray(getNodeAttribute("count"));
+		return getIntNodeAttribute("count");
 	}
 
 	public int[] getFeatureIdx(){
-		return Ints.toArray(getNodeAttribute("feature_idx"));
+		return getIntNodeAttribute("feature_idx");
 	}
 
 	public double[] getThreshold(){
-		List<Number> threshold = getNodeAttribute("threshold");
+		double[] threshold = getDoubleNodeAttribute("threshold");
 
 		// SkLearn 0.23
 		if(threshold != null){
-			return Doubles.toArray(threshold);
+			return threshold;
 		}
 
 		// SkLearn 0.24+
-		return Doubles.toArray(getNodeAttribute("num_threshold"));
+		return getDoubleNodeAttribute("num_threshold");
 	}
 
 	public int[] getMissingGoToLeft(){
-		return Ints.toArray(getNodeAttribute("missing_go_to_left"));
+		return getIntNodeAttribute("missing_go_to_left");
 	}
 
 	public int[] getLeft(){
-		return Ints.toArray(getNodeAttribute("left"));
+		return getIntNodeAttribute("left");
 	}
 
 	public int[] getRight(){
-		return Ints.toArray(getNodeAttribute("right"));
+		return getIntNodeAttribute("right");
 	}
 
 	public int[] isLeaf(){
-		return Ints.toArray(getNodeAttribute("is_leaf"));
+		return getIntNodeAttribute("is_leaf");
 	}
 
 	public int[] getBinThreshhold(){
-		return Ints.toArray(getNodeAttribute("bin_threshold"));
+		return getIntNodeAttribute("bin_threshold");
 	}
 
 	public int[] isCategorical(){
-		List<Number> isCategorical = getNodeAttribute("is_categorical");
+		// SkLearn 0.23: null
+		// SkLearn 0.24+: not null
+		return getIntNodeAttribute("is_categorical");
+	}
 
-		// SkLearn 0.23
-		if(isCategorical == null){
-			return null;
+	public int[] getBitsetIdx(){
+		// SkLearn 0.23: null
+		// SkLearn 0.24+: not null
+		return getIntNodeAttribute("bitset_idx");
+	}
+
+	private int[] getIntNodeAttribute(String key){
+		Object nodes = get("nodes");
+
+		if(nodes instanceof NodeColumns){
+			NodeColumns nodeColumns = (NodeColumns)nodes;
+
+			return (int[])nodeColumns.get(key);
 		}
 
-		// SkLearn 0.24+
-		return Ints.toArray(isCategorical);
+		return NumberArrayUtil.toIntArray(getNodeAttribute(key));
 	}
 
-	public int[] getBitsetIdx(){
-		List<Number> bitsetIdx = getNodeAttribute("bitset_idx");
+	private double[] getDoubleNodeAttribute(String key){
+		Object nodes = get("nodes");
 
-		// SkLearn 0.23
-		if(bitsetIdx == null){
-			return null;
+		if(nodes instanceof NodeColumns){
+			NodeColumns nodeColumns = (NodeColumns)nodes;
+
+			return (double[])nodeColumns.get(key);
 		}
 
-		// SkLearn 0.24+
-		return Ints.toArray(bitsetIdx);
+		return NumberArrayUtil.toDoubleArray(getNodeAttribute(key));
+	}
+
+	private List<?> getNodeAttribute(String key){
+		return getArray("nodes", key);
 	}
 
-	private List<Number> getNodeAttribute(String key){
-		return (List)getArray("nodes", key);
+	/**
+	 * <p>
+	 * Replaces the unpickled node attribute columns with Java primitive arrays.
+	 * Node attributes that are not needed for conversion are dropped.
+	 * </p>
+	 *
+	 * <p>
+	 * After compaction, all getter methods return the same array instances, which must not be modified.
+	 * </p>
+	 *
+	 * @see sklearn.tree.Tree#compact()
+	 */
+	public void compact(){
+		Object nodes = get("nodes");
+
+		if(nodes instanceof NDArray){
+			NodeColumns nodeColumns = new NodeColumns();
+
+			for(String key : TreePredictor.INT_COLUMNS){
+				nodeColumns.put(key, NumberArrayUtil.toIntArray(getNodeAttribute(key)));
+			}
+
+			for(String key : TreePredictor.DOUBLE_COLUMNS){
+				nodeColumns.put(key, NumberArrayUtil.toDoubleArray(getNodeAttribute(key)));
+			}
+
+			put("nodes", nodeColumns);
+		}
+	}
+
+	/**
+	 * A holder of node attribute columns, keyed by node attribute name.
+	 * Node attributes that are not defined map to <code>null</code>.
+	 */
+	static
+	private class NodeColumns extends HashMap<String, Object> {
 	}
 
 	public static final List<String> DTYPE_PREDICTOR_OLD = Arrays.asList("value", "count", "feature_idx", "threshold", "missing_go_to_left", "left", "right", "gain", "depth", "is_leaf", "bin_threshold");
 	public static final List<String> DTYPE_PREDICTOR_NEW = Arrays.asList("value", "count", "feature_idx", "num_threshold", "missing_go_to_left", "left", "right", "gain", "depth", "is_leaf", "bin_threshold", "is_categorical", "bitset_idx");
-}
\ No newline at end of file
+
+	private static final List<String> INT_COLUMNS = Arrays.asList("count", "feature_idx", "missing_go_to_left", "left", "right", "is_leaf", "bin_threshold", "is_categorical", "bitset_idx");
+	private static final List<String> DOUBLE_COLUMNS = Arrays.asList("value", "threshold", "num_threshold");
+}
@@ -19,6 +19,7 @@
 package sklearn.ensemble.hist_gradient_boosting;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.dmg.pmml.DataType;
@@ -69,7 +70,7 @@ public class TreePredictorUtil {
 		double[] values = treePredictor.getValues();
 		int[] rawLeftCatBitsets = treePredictor.getRawLeftCatBitsets();
 
-		Node root = encodeNode(0, True.INSTANCE, leaf, leftChildren, rightChildren, featureIdx, isCategorical, thresholds, bitsetIdx, missingGoToLeft, values, binMapper, rawLeftCatBitsets, new CategoryManager(), predicateManager, schema);
+		Node root = encodeNode(leaf, leftChildren, rightChildren, featureIdx, isCategorical, thresholds, bitsetIdx, missingGoToLeft, values, binMapper, rawLeftCatBitsets, predicateManager, schema);
 
 		TreeModel treeModel = new TreeModel(MiningFunction.REGRESSION, ModelUtil.createMiningSchema(schema), root)
 			.setSplitCharacteristic(TreeModel.SplitCharacteristic.BINARY_SPLIT)
@@ -78,146 +79,261 @@ public class TreePredictorUtil {
 		return treeModel;
 	}
 
+	/**
+	 * <p>
+	 * Creates all the derived fields that {@link #encodeTreeModel(TreePredictor, BinMapper, PredicateManager, Schema)} would create,
+	 * so that tree predictors can be encoded in parallel afterwards.
+	 * </p>
+	 */
 	static
-	private Node encodeNode(int index, Predicate predicate, int[] leaf, int[] leftChildren, int[] rightChildren, int[] featureIdx, int[] isCategorical, double[] thresholds, int[] bitsetIdx, int[] missingGoToLeft, double[] values, BinMapper binMapper, int[] rawLeftCatBitsets, CategoryManager categoryManager, PredicateManager predicateManager, Schema schema){
-		Integer id = Integer.valueOf(index);
+	public void ensureContinuousFeatures(List<TreePredictor> treePredictors, Schema schema){
+		boolean[] ensured = new boolean[(schema.getFeatures()).size()];
 
-		if(leaf[index] == 0){
-			Feature feature = schema.getFeature(featureIdx[index]);
+		for(TreePredictor treePredictor : treePredictors){
+			int[] leaf = treePredictor.isLeaf();
+			int[] featureIdx = treePredictor.getFeatureIdx();
+			int[] isCategorical = treePredictor.isCategorical();
 
-			CategoryManager leftCategoryManager = categoryManager;
-			CategoryManager rightCategoryManager = categoryManager;
+			for(int index = 0; index < leaf.length; index++){
 
-			Predicate leftPredicate;
-			Predicate rightPredicate;
+				if(leaf[index] != 0){
+					continue;
+				}
 
-			boolean defaultLeft = (missingGoToLeft[index] == 1);
+				boolean categorical = ((isCategorical != null) && (isCategorical[index] == 1));
+				if(categorical){
+					continue;
+				}
 
-			boolean categorical = ((isCategorical != null) && (isCategorical[index] == 1));
-			if(categorical){
+				int featureIndex = featureIdx[index];
+				if(ensured[featureIndex]){
+					continue;
+				}
 
-				if(feature instanceof DiscreteFeature){
-					DiscreteFeature discreteFeature = (DiscreteFeature)feature;
+				Feature feature = schema.getFeature(featureIndex);
 
-					String name = discreteFeature.getName();
+				if(!(feature instanceof BinaryFeature) && !(feature instanceof MissingValueFeature)){
+					feature.toContinuousFeature(DataType.DOUBLE);
+				}
 
-					java.util.function.Predicate<Object> valueFilter = categoryManager.getValueFilter(name);
+				ensured[featureIndex] = true;
+			}
+		}
+	}
 
-					int row = bitsetIdx[index];
+	/**
+	 * <p>
+	 * Encodes a binary tree in depth-first, left-to-right order.
+	 * </p>
+	 *
+	 * <p>
+	 * The traversal is driven by an explicit stack (instead of the call stack),
+	 * so that there is no practical limit to the depth of the tree.
+	 * </p>
+	 */
+	static
+	private Node encodeNode(int[] leaf, int[] leftChildren, int[] rightChildren, int[] featureIdx, int[] isCategorical, double[] thresholds, int[] bitsetIdx, int[] missingGoToLeft, double[] values, BinMapper binMapper, int[] rawLeftCatBitsets, PredicateManager predicateManager, Schema schema){
+		int capacity = 64;
 
-					List<Object> leftValues = new ArrayList<>();
-					List<Object> rightValues = new ArrayList<>();
+		int[] stackIndices = new int[capacity];
+		Predicate[] stackPredicates = new Predicate[capacity];
+		CategoryManager[] stackCategoryManagers = new CategoryManager[capacity];
+		Node[] stackParents = new Node[capacity];
 
-					for(int i = 0; i < discreteFeature.size(); i++){
-						Object value = discreteFeature.getValue(i);
+		int size = 0;
 
-						if(!valueFilter.test(value)){
-							continue;
-						}
+		stackIndices[size] = 0;
+		stackPredicates[size] = True.INSTANCE;
+		stackCategoryManagers[size] = new CategoryManager();
+		stackParents[size] = null;
 
-						int word = rawLeftCatBitsets[row * 8 + (i / 32)];
-						if(((word >>> (i % 32)) & 1) == 1){
-							leftValues.add(value);
-						} else
+		size++;
 
-						{
-							rightValues.add(value);
+		Node root = null;
+
+		while(size > 0){
+			size--;
+
+			int index = stackIndices[size];
+			Predicate predicate = stackPredicates[size];
+			CategoryManager categoryManager = stackCategoryManagers[size];
+			Node parent = stackParents[size];
+
+			stackPredicates[size] = null;
+			stackCategoryManagers[size] = null;
+			stackParents[size] = null;
+
+			Integer id = Integer.valueOf(index);
+
+			Node result;
+
+			if(leaf[index] == 0){
+				Feature feature = schema.getFeature(featureIdx[index]);
+
+				CategoryManager leftCategoryManager = categoryManager;
+				CategoryManager rightCategoryManager = categoryManager;
+
+				Predicate leftPredicate;
+				Predicate rightPredicate;
+
+				boolean defaultLeft = (missingGoToLeft[index] == 1);
+
+				boolean categorical = ((isCategorical != null) && (isCategorical[index] == 1));
+				if(categorical){
+
+					if(feature instanceof DiscreteFeature){
+						DiscreteFeature discreteFeature = (DiscreteFeature)feature;
+
+						String name = discreteFeature.getName();
+
+						java.util.function.Predicate<Object> valueFilter = categoryManager.getValueFilter(name);
+
+						int row = bitsetIdx[index];
+
+						List<Object> leftValues = new ArrayList<>();
+						List<Object> rightValues = new ArrayList<>();
+
+						for(int i = 0; i < discreteFeature.size(); i++){
+							Object value = discreteFeature.getValue(i);
+
+							if(!valueFilter.test(value)){
+								continue;
+							}
+
+							int word = rawLeftCatBitsets[row * 8 + (i / 32)];
+							if(((word >>> (i % 32)) & 1) == 1){
+								leftValues.add(value);
+							} else
+
+							{
+								rightValues.add(value);
+							}
 						}
-					}
 
-					leftCategoryManager = categoryManager.fork(name, leftValues);
-					rightCategoryManager = categoryManager.fork(name, rightValues);
+						leftCategoryManager = categoryManager.fork(name, leftValues);
+						rightCategoryManager = categoryManager.fork(name, rightValues);
 
-					if(!leftValues.isEmpty()){
-						leftPredicate = predicateManager.createPredicate(discreteFeature, leftValues);
-					} else
+						if(!leftValues.isEmpty()){
+							leftPredicate = predicateManager.createPredicate(discreteFeature, leftValues);
+						} else
 
-					{
-						leftPredicate = False.INSTANCE;
-					} // End if
+						{
+							leftPredicate = False.INSTANCE;
+						} // End if
 
-					if(!rightValues.isEmpty()){
-						rightPredicate = predicateManager.createPredicate(discreteFeature, rightValues);
+						if(!rightValues.isEmpty()){
+							rightPredicate = predicateManager.createPredicate(discreteFeature, rightValues);
+						} else
+
+						{
+							rightPredicate = False.INSTANCE;
+						}
 					} else
 
 					{
-						rightPredicate = False.INSTANCE;
+						throw new UnsupportedFeatureException("Expected a categorical feature, got " + feature.typeString());
 					}
 				} else
 
 				{
-					throw new UnsupportedFeatureException("Expected a categorical feature, got " + feature.typeString());
-				}
-			} else
+					double threshold = thresholds[index];
 
-			{
-				double threshold = thresholds[index];
+					if(feature instanceof BinaryFeature){
+						BinaryFeature binaryFeature = (BinaryFeature)feature;
 
-				if(feature instanceof BinaryFeature){
-					BinaryFeature binaryFeature = (BinaryFeature)feature;
+						if(threshold != 0.5d){
+							throw new SkLearnException("Expected 0.5 threshold value, got " + threshold);
+						}
 
-					if(threshold != 0.5d){
-						throw new SkLearnException("Expected 0.5 threshold value, got " + threshold);
-					}
+						Object value = binaryFeature.getValue();
 
-					Object value = binaryFeature.getValue();
+						leftPredicate = predicateManager.createSimplePredicate(binaryFeature, SimplePredicate.Operator.NOT_EQUAL, value);
+						rightPredicate = predicateManager.createSimplePredicate(binaryFeature, SimplePredicate.Operator.EQUAL, value);
 
-					leftPredicate = predicateManager.createSimplePredicate(binaryFeature, SimplePredicate.Operator.NOT_EQUAL, value);
-					rightPredicate = predicateManager.createSimplePredicate(binaryFeature, SimplePredicate.Operator.EQUAL, value);
+						// XXX
+						defaultLeft = true;
+					} else
 
-					// XXX
-					defaultLeft = true;
-				} else
+					if(feature instanceof MissingValueFeature){
+						MissingValueFeature missingValueFeature = (MissingValueFeature)feature;
 
-				if(feature instanceof MissingValueFeature){
-					MissingValueFeature missingValueFeature = (MissingValueFeature)feature;
+						if(threshold != 0.5d){
+							throw new SkLearnException("Expected 0.5 threshold value, got " + threshold);
+						}
 
-					if(threshold != 0.5d){
-						throw new SkLearnException("Expected 0.5 threshold value, got " + threshold);
-					}
+						leftPredicate = predicateManager.createSimplePredicate(missingValueFeature, SimplePredicate.Operator.IS_NOT_MISSING, null);
+						rightPredicate = predicateManager.createSimplePredicate(missingValueFeature, SimplePredicate.Operator.IS_MISSING, null);
+					} else
 
-					leftPredicate = predicateManager.createSimplePredicate(missingValueFeature, SimplePredicate.Operator.IS_NOT_MISSING, null);
-					rightPredicate = predicateManager.createSimplePredicate(missingValueFeature, SimplePredicate.Operator.IS_MISSING, null);
-				} else
+					{
+						ContinuousFeature continuousFeature = feature.toContinuousFeature(DataType.DOUBLE);
 
-				{
-					ContinuousFeature continuousFeature = feature.toContinuousFeature(DataType.DOUBLE);
+						Object value;
 
-					Object value;
+						if(threshold == Double.POSITIVE_INFINITY){
+							value = PMMLConstants.POSITIVE_INFINITY;
+						} else
 
-					if(threshold == Double.POSITIVE_INFINITY){
-						value = PMMLConstants.POSITIVE_INFINITY;
-					} else
+						{
+							value = threshold;
+						}
 
-					{
-						value = threshold;
+						leftPredicate = predicateManager.createSimplePredicate(continuousFeature, SimplePredicate.Operator.LESS_OR_EQUAL, value);
+						rightPredicate = predicateManager.createSimplePredicate(continuousFeature, SimplePredicate.Operator.GREATER_THAN, value);
 					}
+				}
+
+				int leftIndex = leftChildren[index];
+				int rightIndex = rightChildren[index];
 
-					leftPredicate = predicateManager.createSimplePredicate(continuousFeature, SimplePredicate.Operator.LESS_OR_EQUAL, value);
-					rightPredicate = predicateManager.createSimplePredicate(continuousFeature, SimplePredicate.Operator.GREATER_THAN, value);
+				// Node identifiers are node indices
+				result = new BranchNode(null, predicate)
+					.setId(id)
+					.setDefaultChild(Integer.valueOf(defaultLeft ? leftIndex : rightIndex));
+
+				if((size + 2) > capacity){
+					capacity *= 2;
+
+					stackIndices = Arrays.copyOf(stackIndices, capacity);
+					stackPredicates = Arrays.copyOf(stackPredicates, capacity);
+					stackCategoryManagers = Arrays.copyOf(stackCategoryManagers, capacity);
+					stackParents = Arrays.copyOf(stackParents, capacity);
 				}
-			}
 
-			Node leftChild = encodeNode(leftChildren[index], leftPredicate, leaf, leftChildren, rightChildren, featureIdx, isCategorical, thresholds, bitsetIdx, missingGoToLeft, values, binMapper, rawLeftCatBitsets, leftCategoryManager, predicateManager, schema);
-			Node rightChild = encodeNode(rightChildren[index], rightPredicate, leaf, leftChildren, rightChildren, featureIdx, isCategorical, thresholds, bitsetIdx, missingGoToLeft, values, binMapper, rawLeftCatBitsets, rightCategoryManager, predicateManager, schema);
+				// Push the right child first, so that the left child is popped (and appended to the parent) first
+				stackIndices[size] = rightIndex;
+				stackPredicates[size] = rightPredicate;
+				stackCategoryManagers[size] = rightCategoryManager;
+				stackParents[size] = result;
 
-			Node result = new BranchNode(null, predicate)
-				.setId(id)
-				.setDefaultChild(defaultLeft ? leftChild.getId() : rightChild.getId())
-				.addNodes(leftChild, rightChild);
+				size++;
 
-			return result;
-		} else
+				stackIndices[size] = leftIndex;
+				stackPredicates[size] = leftPredicate;
+				stackCategoryManagers[size] = leftCategoryManager;
+				stackParents[size] = result;
 
-		if(leaf[index] == 1){
-			Node result = new LeafNode(values[index], predicate)
-				.setId(id);
+				size++;
+			} else
 
-			return result;
-		} else
+			if(leaf[index] == 1){
+				result = new LeafNode(values[index], predicate)
+					.setId(id);
+			} else
+
+			{
+				throw new IllegalArgumentException();
+			} // End if
+
+			if(parent != null){
+				parent.addNodes(result);
+			} else
 
-		{
-			throw new IllegalArgumentException();
+			{
+				root = result;
+			}
 		}
+
+		return root;
 	}
-}
\ No newline at end of file
+}
@@ -18,6 +18,7 @@
  */
 package sklearn.ensemble.iforest;
 
+import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.List;
 
@@ -25,9 +26,6 @@ import org.dmg.pmml.Expression;
 import org.dmg.pmml.FieldRef;
 import org.dmg.pmml.MiningFunction;
 import org.dmg.pmml.PMMLFunctions;
-import org.dmg.pmml.PMMLObject;
-import org.dmg.pmml.Visitor;
-import org.dmg.pmml.VisitorAction;
 import org.dmg.pmml.mining.MiningModel;
 import org.dmg.pmml.mining.Segmentation;
 import org.dmg.pmml.mining.Segmentation.MultipleModelMethod;
@@ -41,7 +39,6 @@ import org.jpmml.converter.Transformation;
 import org.jpmml.converter.ValueUtil;
 import org.jpmml.converter.mining.MiningModelUtil;
 import org.jpmml.converter.transformations.AbstractTransformation;
-import org.jpmml.model.visitors.AbstractVisitor;
 import sklearn.Estimator;
 import sklearn.OutlierDetector;
 import sklearn.OutlierDetectorUtil;
@@ -102,40 +99,46 @@ public class IsolationForestUtil {
 		return miningModel;
 	}
 
+	/**
+	 * <p>
+	 * Replaces node scores with path lengths.
+	 * </p>
+	 *
+	 * <p>
+	 * The tree is traversed using an explicit stack, which keeps track of node depths.
+	 * </p>
+	 */
 	static
 	public void transformTreeModel(TreeModel treeModel, Tree tree, boolean corrected, boolean nodeSampleCorrected){
-		Visitor visitor = new AbstractVisitor(){
+		int[] nodeSamples = tree.getNodeSamples();
 
-			private int[] nodeSamples = tree.getNodeSamples();
+		Deque<Node> nodes = new ArrayDeque<>();
+		Deque<Integer> nodeDepths = new ArrayDeque<>();
 
+		nodes.push(treeModel.getNode());
+		nodeDepths.push(0);
 
-			@Override
-			public VisitorAction visit(Node node){
-
-				if(node.hasScore()){
-					double nodeDepth = 0d;
-
-					Deque<PMMLObject> parents = getParents();
-					for(PMMLObject parent : parents){
+		while(!nodes.isEmpty()){
+			Node node = nodes.pop();
+			int nodeDepth = nodeDepths.pop();
 
-						if(!(parent instanceof Node)){
-							break;
-						}
+			if(node.hasScore()){
+				double nodeSample = nodeSamples[ValueUtil.asInt((Number)node.getId())];
 
-						nodeDepth++;
-					}
+				double averagePathLength = (corrected ? correctedAveragePathLength(nodeSample, nodeSampleCorrected) : averagePathLength(nodeSample));
 
-					double nodeSample = this.nodeSamples[ValueUtil.asInt((Number)node.getId())];
+				node.setScore(nodeDepth + averagePathLength);
+			} // End if
 
-					double averagePathLength = (corrected ? correctedAveragePathLength(nodeSample, nodeSampleCorrected) : averagePathLength(nodeSample));
+			if(node.hasNodes()){
+				List<Node> children = node.getNodes();
 
-					node.setScore(nodeDepth + averagePathLength);
+				for(Node child : children){
+					nodes.push(child);
+					nodeDepths.push(nodeDepth + 1);
 				}
-
-				return super.visit(node);
 			}
-		};
-		visitor.applyTo(treeModel);
+		}
 	}
 
 	static
@@ -65,10 +65,12 @@ import org.jpmml.sklearn.SkLearnEncoder;
 import org.jpmml.sklearn.SkLearnException;
 import sklearn.HasSparseOutput;
 import sklearn.SkLearnTransformer;
+import sklearn2pmml.HasPMMLOptions;
+import sklearn2pmml.SkLearn2PMMLFields;
 import sklearn2pmml.feature_extraction.text.Matcher;
 import sklearn2pmml.feature_extraction.text.Splitter;
 
-public class CountVectorizer extends SkLearnTransformer implements HasSparseOutput {
+public class CountVectorizer extends SkLearnTransformer implements HasPMMLOptions<CountVectorizer>, HasSparseOutput, HasVectorizerOptions {
 
 	public CountVectorizer(String module, String name){
 		super(module, name);
@@ -127,6 +129,8 @@ public class CountVectorizer extends SkLearnTransformer implements HasSparseOutp
 
 		encoder.addDefineFunction(defineFunction);
 
+		Boolean pruneVocabulary = (Boolean)getPMMLOption(HasVectorizerOptions.OPTION_PRUNE_VOCABULARY, Boolean.FALSE);
+
 		List<Feature> result = new ArrayList<>();
 
 		for(int i = 0, max = indexTermMap.size(); i < max; i++){
@@ -134,15 +138,30 @@ public class CountVectorizer extends SkLearnTransformer implements HasSparseOutp
 
 			Apply apply = encodeApply(defineFunction, feature, i, term);
 
-			DerivedField derivedField = encoder.createDerivedField(FieldNameUtil.create(functionName(), feature, term), opType, dataType, apply);
+			String name = FieldNameUtil.create(functionName(), feature, term);
 
 			Feature termFeature;
 
 			if(binary){
+				DerivedField derivedField = encoder.createDerivedField(name, opType, dataType, apply);
+
 				termFeature = new CategoricalFeature(encoder, derivedField, Arrays.asList(0, 1));
 			} else
 
+			if(pruneVocabulary){
+				OpType termOpType = opType;
+
+				// The derived field is created when (and if) the term is consumed by a downstream estimator
+				termFeature = new TermFeature(encoder, name, dataType, () -> {
+					DerivedField derivedField = encoder.createDerivedField(name, termOpType, dataType, apply);
+
+					return new ContinuousFeature(encoder, derivedField);
+				});
+			} else
+
 			{
+				DerivedField derivedField = encoder.createDerivedField(name, opType, dataType, apply);
+
 				termFeature = new ObjectFeature(encoder, derivedField){
 
 					@Override
@@ -181,19 +200,30 @@ public class CountVectorizer extends SkLearnTransformer implements HasSparseOutp
 
 		ParameterField termField = new ParameterField("term");
 
+		String stopWordsRE = null;
+
+		if((stopWords != null && !stopWords.isEmpty()) && !Arrays.equals(nGramRange, new Integer[]{1, 1})){
+			stopWordsRE = tokenizer.formatStopWordsRE(stopWords);
+		}
+
+		Boolean vectorized = (Boolean)getPMMLOption(HasVectorizerOptions.OPTION_VECTORIZED, Boolean.FALSE);
+		if(vectorized && stopWordsRE == null){
+			Apply apply = encodeTermFrequencyApply(tokenizer, binary, new FieldRef(documentField), new FieldRef(termField));
+
+			String name = createFieldName(functionName(), feature);
+
+			DefineFunction defineFunction = new DefineFunction(name, OpType.CONTINUOUS, DataType.INTEGER, null, apply)
+				.addParameterFields(documentField, termField);
+
+			return defineFunction;
+		}
+
 		TextIndex textIndex = new TextIndex(documentField, new FieldRef(termField))
 			.setLocalTermWeights(binary ? TextIndex.LocalTermWeights.BINARY : null);
 
 		textIndex = tokenizer.configure(textIndex);
 
-		stopWords:
-		if((stopWords != null && !stopWords.isEmpty()) && !Arrays.equals(nGramRange, new Integer[]{1, 1})){
-			String stopWordsRE = tokenizer.formatStopWordsRE(stopWords);
-
-			if(stopWordsRE == null){
-				break stopWords;
-			}
-
+		if(stopWordsRE != null){
 			Map<String, List<String>> data = new LinkedHashMap<>();
 			data.put("string", Collections.singletonList(stopWordsRE));
 			data.put("stem", Collections.singletonList(" "));
@@ -213,6 +243,42 @@ public class CountVectorizer extends SkLearnTransformer implements HasSparseOutp
 		return defineFunction;
 	}
 
+	/**
+	 * <p>
+	 * Encodes an invocation of the {@link #FUNCTION_TERM_FREQUENCY} Java function,
+	 * which tokenizes the document once, and then answers term frequency queries from a per-document term count table.
+	 * </p>
+	 *
+	 * <p>
+	 * The function is provided by the <code>pmml-sklearn-evaluator</code> module.
+	 * Its arguments are the document, the term, the tokenization mode ("match" or "split"), the tokenization regex and the binary flag.
+	 * </p>
+	 */
+	public Apply encodeTermFrequencyApply(Tokenizer tokenizer, Boolean binary, FieldRef documentRef, FieldRef termRef){
+		String mode;
+		String regex;
+
+		if(tokenizer instanceof Matcher){
+			Matcher matcher = (Matcher)tokenizer;
+
+			mode = CountVectorizer.MODE_MATCH;
+			regex = matcher.getWordRE();
+		} else
+
+		if(tokenizer instanceof Splitter){
+			Splitter splitter = (Splitter)tokenizer;
+
+			mode = CountVectorizer.MODE_SPLIT;
+			regex = splitter.getWordSeparatorRE();
+		} else
+
+		{
+			throw new IllegalArgumentException();
+		}
+
+		return ExpressionUtil.createApply(CountVectorizer.FUNCTION_TERM_FREQUENCY, documentRef, termRef, ExpressionUtil.createConstant(mode), ExpressionUtil.createConstant(regex), ExpressionUtil.createConstant(binary));
+	}
+
 	public Apply encodeApply(DefineFunction defineFunction, Feature feature, int index, String term){
 		Constant constant = ExpressionUtil.createConstant(term);
 
@@ -227,6 +293,29 @@ public class CountVectorizer extends SkLearnTransformer implements HasSparseOutp
 		return getEnum("analyzer", this::getString, Arrays.asList(CountVectorizer.ANALYZER_WORD));
 	}
 
+	@Override
+	protected Object resolvePMMLOption(String key, boolean useSurrogate){
+		Map<String, ?> pmmlOptions = getPMMLOptions();
+
+		if(pmmlOptions != null && pmmlOptions.containsKey(key)){
+			return pmmlOptions.get(key);
+		}
+
+		return super.resolvePMMLOption(key, useSurrogate);
+	}
+
+	@Override
+	public Map<String, ?> getPMMLOptions(){
+		return getOptionalDict(SkLearn2PMMLFields.PMML_OPTIONS);
+	}
+
+	@Override
+	public CountVectorizer setPMMLOptions(Map<String, ?> pmmlOptions){
+		setattr(SkLearn2PMMLFields.PMML_OPTIONS, pmmlOptions);
+
+		return this;
+	}
+
 	public Boolean getBinary(){
 		return getBoolean("binary");
 	}
@@ -312,6 +401,11 @@ public class CountVectorizer extends SkLearnTransformer implements HasSparseOutp
 
 	public static final String TOKEN_PATTERN = "(?u)\\b\\w\\w+\\b";
 
+	public static final String FUNCTION_TERM_FREQUENCY = "org.jpmml.sklearn.evaluator.functions.TermFrequency";
+
+	private static final String MODE_MATCH = "match";
+	private static final String MODE_SPLIT = "split";
+
 	private static final String ANALYZER_WORD = "word";
 
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sklearn.feature_extraction.text;
+
+import org.dmg.pmml.TextIndex;
+import org.jpmml.sklearn.HasSkLearnOptions;
+
+public interface HasVectorizerOptions extends HasSkLearnOptions {
+
+	/**
+	 * Replace {@link TextIndex} elements with invocations of the {@link CountVectorizer#FUNCTION_TERM_FREQUENCY} Java function,
+	 * which tokenizes every document only once.
+	 * Falls back to {@link TextIndex} elements if stop words must be removed before extracting n-grams.
+	 */
+	String OPTION_VECTORIZED = "vectorized";
+
+	/**
+	 * Defer the encoding of term frequency fields until they are consumed by a downstream estimator.
+	 * Terms that have zero coefficients, or that are never split on, do not end up in the PMML document.
+	 * Does not apply to binary term frequencies, or to TF-IDF vectorizers that normalize term frequencies.
+	 * Downstream steps that resolve term features by name (rather than by {@link TermFeature#toContinuousFeature()}) fail with a {@link org.jpmml.sklearn.SkLearnException}.
+	 */
+	String OPTION_PRUNE_VOCABULARY = "prune_vocabulary";
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sklearn.feature_extraction.text;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.dmg.pmml.DataType;
+import org.dmg.pmml.Field;
+import org.dmg.pmml.FieldRef;
+import org.jpmml.converter.ContinuousFeature;
+import org.jpmml.converter.ExceptionUtil;
+import org.jpmml.converter.ObjectFeature;
+import org.jpmml.converter.PMMLEncoder;
+import org.jpmml.sklearn.LazyFeature;
+import org.jpmml.sklearn.SkLearnException;
+
+/**
+ * <p>
+ * A term frequency feature, whose derived field is created when (and if) the feature is consumed by a downstream estimator.
+ * </p>
+ *
+ * <p>
+ * Consumers must go through {@link #toContinuousFeature()}.
+ * Resolving the feature by name before that fails, because the named field does not exist yet.
+ * </p>
+ *
+ * @see HasVectorizerOptions#OPTION_PRUNE_VOCABULARY
+ */
+public class TermFeature extends ObjectFeature implements LazyFeature {
+
+	private TermFeature source = null;
+
+	private Supplier<ContinuousFeature> supplier = null;
+
+	private ContinuousFeature continuousFeature = null;
+
+
+	public TermFeature(PMMLEncoder encoder, String name, DataType dataType, Supplier<ContinuousFeature> supplier){
+		super(encoder, name, dataType);
+
+		this.supplier = supplier;
+	}
+
+	private TermFeature(TermFeature source, Function<ContinuousFeature, ContinuousFeature> function){
+		this(source.getEncoder(), source.getName(), source.getDataType(), () -> function.apply(source.toContinuousFeature()));
+
+		this.source = source;
+	}
+
+	@Override
+	public TermFeature transform(Function<ContinuousFeature, ContinuousFeature> function){
+		return new TermFeature(this, function);
+	}
+
+	/**
+	 * <p>
+	 * A transformed feature reports the encoded state of its source feature.
+	 * </p>
+	 */
+	@Override
+	public boolean isEncoded(){
+
+		if(this.source != null){
+			return this.source.isEncoded();
+		}
+
+		return (this.continuousFeature != null);
+	}
+
+	@Override
+	public Field<?> getField(){
+		return requireContinuousFeature().getField();
+	}
+
+	@Override
+	public FieldRef ref(){
+		return requireContinuousFeature().ref();
+	}
+
+	@Override
+	public ContinuousFeature toContinuousFeature(){
+
+		if(this.continuousFeature == null){
+			this.continuousFeature = this.supplier.get();
+		}
+
+		return this.continuousFeature;
+	}
+
+	private ContinuousFeature requireContinuousFeature(){
+
+		if(!isEncoded()){
+			throw new SkLearnException("Term feature " + ExceptionUtil.formatName(getName()) + " is resolved by name before it has been encoded")
+				.setSolution("Disable the " + ExceptionUtil.formatName(HasVectorizerOptions.OPTION_PRUNE_VOCABULARY) + " option");
+		}
+
+		return toContinuousFeature();
+	}
+}
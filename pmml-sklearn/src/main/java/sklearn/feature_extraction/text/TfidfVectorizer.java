@@ -19,6 +19,7 @@
 package sklearn.feature_extraction.text;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.dmg.pmml.Apply;
 import org.dmg.pmml.DataType;
@@ -79,6 +80,11 @@ public class TfidfVectorizer extends CountVectorizer {
 				case TfidfTransformer.NORM_L1:
 				case TfidfTransformer.NORM_L2:
 					{
+						// The norm is a function of every term, so lazily encoded terms must be encoded now
+						result = result.stream()
+							.map(feature -> (feature instanceof TermFeature) ? feature.toContinuousFeature() : feature)
+							.collect(Collectors.toList());
+
 						Normalizer normalizer = new Normalizer()
 							.setNorm(norm);
 
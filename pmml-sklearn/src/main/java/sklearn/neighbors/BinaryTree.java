@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.jpmml.python.CythonObject;
+import org.jpmml.sklearn.NumberArrayUtil;
 
 public class BinaryTree extends CythonObject {
 
@@ -49,6 +50,44 @@ public class BinaryTree extends CythonObject {
 		}
 	}
 
+	public int[] getIdxArray(){
+		return NumberArrayUtil.toIntArray(getNumberArray("idx_array_arr"));
+	}
+
+	public int[] getIdxStart(){
+		return NumberArrayUtil.toIntArray(getNodeAttribute("idx_start"));
+	}
+
+	public int[] getIdxEnd(){
+		return NumberArrayUtil.toIntArray(getNodeAttribute("idx_end"));
+	}
+
+	public int[] getIsLeaf(){
+		return NumberArrayUtil.toIntArray(getNodeAttribute("is_leaf"));
+	}
+
+	public double[] getRadius(){
+		return NumberArrayUtil.toDoubleArray(getNodeAttribute("radius"));
+	}
+
+	/**
+	 * <p>
+	 * KD-trees keep the lower and upper bounds of nodes (shape <code>(2, n_nodes, n_features)</code>).
+	 * Ball trees keep the centroids of nodes (shape <code>(1, n_nodes, n_features)</code>).
+	 * </p>
+	 */
+	public double[] getNodeBounds(){
+		return NumberArrayUtil.toDoubleArray(getNumberArray("node_bounds_arr"));
+	}
+
+	public int[] getNodeBoundsShape(){
+		return getArrayShape("node_bounds_arr", 3);
+	}
+
+	private List<?> getNodeAttribute(String key){
+		return getArray("node_data_arr", key);
+	}
+
 	private static final String[] INIT_ATTRIBUTES = {
 		"data"
 	};
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sklearn.neighbors;
+
+import org.dmg.pmml.TableLocator;
+import org.jpmml.sklearn.HasSkLearnOptions;
+import org.jpmml.sklearn.OutputContext;
+
+public interface HasNeighborsOptions extends HasSkLearnOptions {
+
+	/**
+	 * Keep the fitted KD-tree or ball tree in a <code>TrainingInstances</code> extension,
+	 * so that PMML consumers can search neighbors without scanning all training instances.
+	 *
+	 * @see KNeighborsUtil#encodeSearchTree(BinaryTree)
+	 */
+	String OPTION_SEARCH_TREE = "search_tree";
+
+	/**
+	 * <p>
+	 * The path of an external CSV file, where training instances should be written to.
+	 * A relative path is resolved against the directory of the PMML output file (see {@link OutputContext}).
+	 * The <code>TrainingInstances</code> element then references this file via a {@link TableLocator} element,
+	 * instead of embedding training instances via an <code>InlineTable</code> element.
+	 * </p>
+	 *
+	 * <p>
+	 * The PMML specification leaves the content of the {@link TableLocator} element to the application.
+	 * This converter emits two <code>Extension</code> elements:
+	 * </p>
+	 * <ul>
+	 *   <li><code>location</code>. The path of the CSV file, exactly as given by this option.</li>
+	 *   <li><code>format</code>. Always <code>csv</code>.</li>
+	 * </ul>
+	 *
+	 * <p>
+	 * The CSV file is UTF-8 encoded, and uses comma as the field separator and LF as the record separator.
+	 * The header row holds the <code>column</code> attributes of <code>InstanceField</code> elements.
+	 * A cell that contains a comma, a double quote, CR or LF is enclosed in double quotes, and its double quotes are doubled (RFC 4180).
+	 * A missing value is an empty cell.
+	 * </p>
+	 *
+	 * <p>
+	 * The CSV file is written during conversion, and it is not stored in the conversion cache.
+	 * Conversions that write CSV files are not cached.
+	 * </p>
+	 */
+	String OPTION_TABLE_LOCATOR = "table_locator";
+}
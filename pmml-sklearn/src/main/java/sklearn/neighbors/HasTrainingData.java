@@ -31,4 +31,9 @@ public interface HasTrainingData {
 	List<? extends Number> getY();
 
 	int[] getYShape();
+
+	/**
+	 * @return The fitted KD-tree or ball tree, or <code>null</code> if neighbors are searched by brute force.
+	 */
+	BinaryTree getBinaryTree();
 }
\ No newline at end of file
@@ -25,7 +25,7 @@ import org.dmg.pmml.nearest_neighbor.NearestNeighborModel;
 import org.jpmml.converter.Schema;
 import sklearn.SkLearnClassifier;
 
-public class KNeighborsClassifier extends SkLearnClassifier implements HasMetric, HasNumberOfNeighbors, HasTrainingData, KNeighborsConstants {
+public class KNeighborsClassifier extends SkLearnClassifier implements HasMetric, HasNeighborsOptions, HasNumberOfNeighbors, HasTrainingData, KNeighborsConstants {
 
 	public KNeighborsClassifier(String module, String name){
 		super(module, name);
@@ -110,6 +110,11 @@ public class KNeighborsClassifier extends SkLearnClassifier implements HasMetric
 		return getArrayShape("_y");
 	}
 
+	@Override
+	public BinaryTree getBinaryTree(){
+		return KNeighborsUtil.getBinaryTree(this);
+	}
+
 	public String getWeights(){
 		return getEnum("weights", this::getString, KNeighborsClassifier.ENUM_WEIGHTS);
 	}
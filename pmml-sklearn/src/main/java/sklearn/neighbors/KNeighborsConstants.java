@@ -23,6 +23,9 @@ import java.util.List;
 
 interface KNeighborsConstants {
 
+	String ALGORITHM_BALL_TREE = "ball_tree";
+	String ALGORITHM_KD_TREE = "kd_tree";
+
 	String METRIC_EUCLIDEAN = "euclidean";
 	String METRIC_MANHATTAN = "manhattan";
 	String METRIC_MINKOWSKI = "minkowski";
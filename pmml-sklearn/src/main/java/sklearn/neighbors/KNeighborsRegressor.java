@@ -25,7 +25,7 @@ import org.dmg.pmml.nearest_neighbor.NearestNeighborModel;
 import org.jpmml.converter.Schema;
 import sklearn.SkLearnRegressor;
 
-public class KNeighborsRegressor extends SkLearnRegressor implements HasMetric, HasNumberOfNeighbors, HasTrainingData, KNeighborsConstants {
+public class KNeighborsRegressor extends SkLearnRegressor implements HasMetric, HasNeighborsOptions, HasNumberOfNeighbors, HasTrainingData, KNeighborsConstants {
 
 	public KNeighborsRegressor(String module, String name){
 		super(module, name);
@@ -105,6 +105,11 @@ public class KNeighborsRegressor extends SkLearnRegressor implements HasMetric,
 		return getArrayShape("_y");
 	}
 
+	@Override
+	public BinaryTree getBinaryTree(){
+		return KNeighborsUtil.getBinaryTree(this);
+	}
+
 	public String getWeights(){
 		return getEnum("weights", this::getString, KNeighborsRegressor.ENUM_WEIGHTS);
 	}
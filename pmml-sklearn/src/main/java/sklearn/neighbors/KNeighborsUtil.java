@@ -18,6 +18,15 @@
  */
 package sklearn.neighbors;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -25,23 +34,27 @@ import java.util.Map;
 
 import com.google.common.base.Function;
 import com.google.common.collect.Lists;
+import com.google.common.primitives.Doubles;
+import com.google.common.primitives.Ints;
+import org.dmg.pmml.Array;
 import org.dmg.pmml.CityBlock;
 import org.dmg.pmml.CompareFunction;
 import org.dmg.pmml.ComparisonMeasure;
 import org.dmg.pmml.DataType;
 import org.dmg.pmml.Euclidean;
+import org.dmg.pmml.Extension;
 import org.dmg.pmml.Measure;
 import org.dmg.pmml.MiningFunction;
 import org.dmg.pmml.Minkowski;
 import org.dmg.pmml.Output;
 import org.dmg.pmml.OutputField;
+import org.dmg.pmml.TableLocator;
 import org.dmg.pmml.nearest_neighbor.InstanceField;
 import org.dmg.pmml.nearest_neighbor.InstanceFields;
 import org.dmg.pmml.nearest_neighbor.KNNInput;
 import org.dmg.pmml.nearest_neighbor.KNNInputs;
 import org.dmg.pmml.nearest_neighbor.NearestNeighborModel;
 import org.dmg.pmml.nearest_neighbor.TrainingInstances;
-import org.jpmml.converter.CMatrixUtil;
 import org.jpmml.converter.CategoricalLabel;
 import org.jpmml.converter.ContinuousFeature;
 import org.jpmml.converter.ContinuousLabel;
@@ -54,6 +67,8 @@ import org.jpmml.converter.ScalarLabelUtil;
 import org.jpmml.converter.Schema;
 import org.jpmml.converter.ValueUtil;
 import org.jpmml.python.ClassDictUtil;
+import org.jpmml.sklearn.OutputContext;
+import org.jpmml.sklearn.SkLearnException;
 import sklearn.Estimator;
 
 public class KNeighborsUtil {
@@ -80,6 +95,25 @@ public class KNeighborsUtil {
 		}
 	}
 
+	/**
+	 * @see HasTrainingData#getBinaryTree()
+	 */
+	static
+	public BinaryTree getBinaryTree(Estimator estimator){
+
+		if(!estimator.hasattr("_tree")){
+			return null;
+		}
+
+		Object tree = estimator.get("_tree");
+
+		if(tree instanceof BinaryTree){
+			return (BinaryTree)tree;
+		}
+
+		return null;
+	}
+
 	static
 	public boolean parseWeights(String weights){
 
@@ -94,7 +128,7 @@ public class KNeighborsUtil {
 	}
 
 	static
-	public <E extends Estimator & HasMetric & HasNumberOfNeighbors & HasTrainingData> NearestNeighborModel encodeNeighbors(E estimator, MiningFunction miningFunction, int numberOfInstances, int numberOfFeatures, Schema schema){
+	public <E extends Estimator & HasMetric & HasNeighborsOptions & HasNumberOfNeighbors & HasTrainingData> NearestNeighborModel encodeNeighbors(E estimator, MiningFunction miningFunction, int numberOfInstances, int numberOfFeatures, Schema schema){
 		int numberOfNeighbors = estimator.getNumberOfNeighbors();
 		int numberOfOutputs = estimator.getNumberOfOutputs();
 
@@ -113,17 +147,18 @@ public class KNeighborsUtil {
 		Label label = schema.getLabel();
 		List<? extends Feature> features = schema.getFeatures();
 
-		Map<String, List<?>> data = new LinkedHashMap<>();
+		// Maps InstanceField elements to column values
+		Map<InstanceField, List<?>> data = new LinkedHashMap<>();
 
 		InstanceFields instanceFields = new InstanceFields();
 
 		if(id != null){
 			InstanceField instanceField = new InstanceField(KNeighborsUtil.VARIABLE_ID)
-				.setColumn("data:id");
+				.setColumn("id");
 
 			instanceFields.addInstanceFields(instanceField);
 
-			data.put(instanceField.getColumn(), id);
+			data.put(instanceField, id);
 		}
 
 		List<ScalarLabel> scalarLabels = Collections.emptyList();
@@ -143,11 +178,11 @@ public class KNeighborsUtil {
 
 			if(scalarLabel != null){
 				InstanceField instanceField = new InstanceField(scalarLabel.getName())
-					.setColumn("data:y");
+					.setColumn("y");
 
 				instanceFields.addInstanceFields(instanceField);
 
-				data.put(instanceField.getColumn(), translateValues(scalarLabel, y));
+				data.put(instanceField, translateValues(scalarLabel, y));
 			}
 		} else
 
@@ -158,11 +193,11 @@ public class KNeighborsUtil {
 
 				if(scalarLabel != null){
 					InstanceField instanceField = new InstanceField(scalarLabel.getName())
-						.setColumn("data:y" + String.valueOf(i + 1));
+						.setColumn("y" + String.valueOf(i + 1));
 
 					instanceFields.addInstanceFields(instanceField);
 
-					data.put(instanceField.getColumn(), translateValues(scalarLabel, CMatrixUtil.getColumn(y, numberOfInstances, numberOfOutputs, i)));
+					data.put(instanceField, translateValues(scalarLabel, getColumn(y, numberOfInstances, numberOfOutputs, i)));
 				}
 			}
 		} else
@@ -183,7 +218,7 @@ public class KNeighborsUtil {
 			String name = continuousFeature.getName();
 
 			InstanceField instanceField = new InstanceField(name)
-				.setColumn("data:x" + String.valueOf(i + 1));
+				.setColumn("x" + String.valueOf(i + 1));
 
 			instanceFields.addInstanceFields(instanceField);
 
@@ -191,11 +226,65 @@ public class KNeighborsUtil {
 
 			knnInputs.addKNNInputs(knnInput);
 
-			data.put(instanceField.getColumn(), CMatrixUtil.getColumn(fitX, numberOfInstances, numberOfFeatures, i));
+			data.put(instanceField, getColumn(fitX, numberOfInstances, numberOfFeatures, i));
+		}
+
+		String tableLocation = (String)estimator.getPMMLOption(HasNeighborsOptions.OPTION_TABLE_LOCATOR, null);
+
+		TrainingInstances trainingInstances;
+
+		if(tableLocation != null){
+			File file = OutputContext.resolveSidecarFile(tableLocation);
+
+			try {
+				writeTable(data, numberOfInstances, file);
+			} catch(IOException ioe){
+				throw new SkLearnException("Failed to write training instances to " + file.getAbsolutePath(), ioe);
+			}
+
+			TableLocator tableLocator = new TableLocator()
+				.addExtensions(new Extension()
+					.setName(KNeighborsUtil.EXTENSION_LOCATION)
+					.setValue(tableLocation)
+				)
+				.addExtensions(new Extension()
+					.setName(KNeighborsUtil.EXTENSION_FORMAT)
+					.setValue(KNeighborsUtil.FORMAT_CSV)
+				);
+
+			trainingInstances = new TrainingInstances()
+				.setInstanceFields(instanceFields)
+				.setTableLocator(tableLocator);
+		} else
+
+		// XXX
+		// The InlineTable element holds one cell element per value, which takes a lot more memory than the training data itself.
+		// Large training datasets should be exported using the table locator option
+		{
+			Map<String, List<?>> inlineData = new LinkedHashMap<>();
+
+			Collection<Map.Entry<InstanceField, List<?>>> entries = data.entrySet();
+			for(Map.Entry<InstanceField, List<?>> entry : entries){
+				InstanceField instanceField = entry.getKey();
+
+				instanceField.setColumn("data:" + instanceField.getColumn());
+
+				inlineData.put(instanceField.getColumn(), entry.getValue());
+			}
+
+			trainingInstances = new TrainingInstances()
+				.setInstanceFields(instanceFields)
+				.setInlineTable(PMMLUtil.createInlineTable(inlineData));
 		}
 
-		TrainingInstances trainingInstances = new TrainingInstances(instanceFields, PMMLUtil.createInlineTable(data))
-			.setTransformed(true);
+		trainingInstances.setTransformed(true);
+
+		BinaryTree binaryTree = estimator.getBinaryTree();
+
+		Boolean searchTree = (Boolean)estimator.getPMMLOption(HasNeighborsOptions.OPTION_SEARCH_TREE, Boolean.FALSE);
+		if(searchTree && binaryTree != null){
+			trainingInstances.addExtensions(encodeSearchTree(binaryTree));
+		}
 
 		ComparisonMeasure comparisonMeasure = encodeComparisonMeasure(estimator);
 
@@ -224,6 +313,148 @@ public class KNeighborsUtil {
 		return nearestNeighborModel;
 	}
 
+	/**
+	 * <p>
+	 * Encodes a fitted KD-tree or ball tree as an extension element.
+	 * The extension value is either <code>kd_tree</code> or <code>ball_tree</code>.
+	 * </p>
+	 *
+	 * <p>
+	 * Child extensions hold node data arrays (<code>idx_start</code>, <code>idx_end</code>, <code>is_leaf</code>, <code>radius</code>),
+	 * the index permutation of training instances (<code>idx_array</code>),
+	 * and node bounds in C-order (<code>node_bounds</code>).
+	 * The children of node <code>i</code> are nodes <code>2 * i + 1</code> and <code>2 * i + 2</code>.
+	 * Node <code>i</code> covers training instances <code>idx_array[idx_start[i]]</code> to <code>idx_array[idx_end[i] - 1]</code>.
+	 * </p>
+	 */
+	static
+	public Extension encodeSearchTree(BinaryTree binaryTree){
+		int[] nodeBoundsShape = binaryTree.getNodeBoundsShape();
+
+		String kind;
+
+		// (2, n_nodes, n_features)
+		if(nodeBoundsShape[0] == 2){
+			kind = KNeighborsConstants.ALGORITHM_KD_TREE;
+		} else
+
+		// (1, n_nodes, n_features)
+		if(nodeBoundsShape[0] == 1){
+			kind = KNeighborsConstants.ALGORITHM_BALL_TREE;
+		} else
+
+		{
+			throw new IllegalArgumentException();
+		}
+
+		Extension extension = new Extension()
+			.setName(KNeighborsUtil.EXTENSION_SEARCH_TREE)
+			.setValue(kind)
+			.addContent(
+				encodeArrayExtension("idx_array", PMMLUtil.createIntArray(Ints.asList(binaryTree.getIdxArray()))),
+				encodeArrayExtension("idx_start", PMMLUtil.createIntArray(Ints.asList(binaryTree.getIdxStart()))),
+				encodeArrayExtension("idx_end", PMMLUtil.createIntArray(Ints.asList(binaryTree.getIdxEnd()))),
+				encodeArrayExtension("is_leaf", PMMLUtil.createIntArray(Ints.asList(binaryTree.getIsLeaf()))),
+				encodeArrayExtension("radius", PMMLUtil.createRealArray(Doubles.asList(binaryTree.getRadius()))),
+				encodeArrayExtension("node_bounds", PMMLUtil.createRealArray(Doubles.asList(binaryTree.getNodeBounds())))
+			);
+
+		return extension;
+	}
+
+	static
+	private Extension encodeArrayExtension(String name, Array array){
+		Extension extension = new Extension()
+			.setName(name)
+			.addContent(array);
+
+		return extension;
+	}
+
+	/**
+	 * <p>
+	 * Returns a column of a C-order matrix as a read-only view, without copying elements.
+	 * </p>
+	 */
+	static
+	private <V> List<V> getColumn(List<V> values, int rows, int columns, int column){
+		ClassDictUtil.checkSize(rows * columns, values);
+
+		return new AbstractList<V>(){
+
+			@Override
+			public V get(int index){
+				return values.get((index * columns) + column);
+			}
+
+			@Override
+			public int size(){
+				return rows;
+			}
+		};
+	}
+
+	/**
+	 * <p>
+	 * Writes training instances to a CSV file row by row.
+	 * </p>
+	 *
+	 * @see HasNeighborsOptions#OPTION_TABLE_LOCATOR
+	 */
+	static
+	void writeTable(Map<InstanceField, List<?>> data, int rows, File file) throws IOException {
+
+		try(Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 64 * 1024)){
+			writeTable(data, rows, writer);
+		}
+	}
+
+	static
+	void writeTable(Map<InstanceField, List<?>> data, int rows, Writer writer) throws IOException {
+		InstanceField[] instanceFields = (data.keySet()).toArray(new InstanceField[data.size()]);
+		List<?>[] columns = (data.values()).toArray(new List<?>[data.size()]);
+
+		for(int column = 0; column < instanceFields.length; column++){
+
+			if(column > 0){
+				writer.write(',');
+			}
+
+			writer.write(formatCell(instanceFields[column].getColumn()));
+		}
+
+		writer.write('\n');
+
+		for(int row = 0; row < rows; row++){
+
+			for(int column = 0; column < columns.length; column++){
+
+				if(column > 0){
+					writer.write(',');
+				}
+
+				Object value = columns[column].get(row);
+
+				if(value != null){
+					writer.write(formatCell(value));
+				}
+			}
+
+			writer.write('\n');
+		}
+	}
+
+	static
+	String formatCell(Object value){
+		String string = ValueUtil.asString(value);
+
+		if(string.indexOf(',') > -1 || string.indexOf('\"') > -1 || string.indexOf('\n') > -1 || string.indexOf('\r') > -1){
+			return "\"" + string.replace("\"", "\"\"") + "\"";
+		}
+
+		return string;
+	}
+
 	static
 	private <E extends Estimator & HasMetric> ComparisonMeasure encodeComparisonMeasure(E estimator){
 		Measure measure = encodeMeasure(estimator);
@@ -312,4 +543,11 @@ public class KNeighborsUtil {
 	}
 
 	private static final String VARIABLE_ID = "id";
+
+	private static final String EXTENSION_FORMAT = "format";
+	private static final String EXTENSION_LOCATION = "location";
+
+	private static final String EXTENSION_SEARCH_TREE = "search_tree";
+
+	private static final String FORMAT_CSV = "csv";
 }
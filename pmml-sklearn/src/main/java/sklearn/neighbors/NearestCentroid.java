@@ -27,7 +27,7 @@ import org.jpmml.converter.Schema;
 import org.jpmml.python.SliceUtil;
 import sklearn.SkLearnClassifier;
 
-public class NearestCentroid extends SkLearnClassifier implements HasMetric, HasNumberOfNeighbors, HasTrainingData, KNeighborsConstants {
+public class NearestCentroid extends SkLearnClassifier implements HasMetric, HasNeighborsOptions, HasNumberOfNeighbors, HasTrainingData, KNeighborsConstants {
 
 	public NearestCentroid(String module, String name){
 		super(module, name);
@@ -114,4 +114,9 @@ public class NearestCentroid extends SkLearnClassifier implements HasMetric, Has
 
 		return new int[]{classes.size()};
 	}
+
+	@Override
+	public BinaryTree getBinaryTree(){
+		return null;
+	}
 }
\ No newline at end of file
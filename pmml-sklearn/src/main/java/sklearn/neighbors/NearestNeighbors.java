@@ -26,7 +26,7 @@ import org.jpmml.converter.Schema;
 import org.jpmml.python.SliceUtil;
 import sklearn.SkLearnClusterer;
 
-public class NearestNeighbors extends SkLearnClusterer implements HasMetric, HasNumberOfNeighbors, HasTrainingData, KNeighborsConstants {
+public class NearestNeighbors extends SkLearnClusterer implements HasMetric, HasNeighborsOptions, HasNumberOfNeighbors, HasTrainingData, KNeighborsConstants {
 
 	public NearestNeighbors(String module, String name){
 		super(module, name);
@@ -101,4 +101,9 @@ public class NearestNeighbors extends SkLearnClusterer implements HasMetric, Has
 	public int[] getYShape(){
 		throw new UnsupportedOperationException();
 	}
+
+	@Override
+	public BinaryTree getBinaryTree(){
+		return KNeighborsUtil.getBinaryTree(this);
+	}
 }
\ No newline at end of file
@@ -27,6 +27,8 @@ import org.dmg.pmml.SimplePredicate;
 import org.dmg.pmml.SimpleSetPredicate;
 import org.dmg.pmml.tree.Node;
 import org.jpmml.converter.HasNativeConfiguration;
+import org.jpmml.converter.PredicateManager;
+import org.jpmml.converter.ScoreDistributionManager;
 import org.jpmml.sklearn.HasSkLearnOptions;
 import sklearn.tree.visitors.TreeModelCompactor;
 import sklearn.tree.visitors.TreeModelFlattener;
@@ -44,6 +46,13 @@ public interface HasTreeOptions extends HasSkLearnOptions, HasNativeConfiguratio
 	 */
 	String OPTION_COMPACT = "compact";
 
+	/**
+	 * Merge structurally identical members of a tree ensemble into one weighted segment.
+	 *
+	 * @see TreeEnsembleUtil
+	 */
+	String OPTION_DEDUPLICATE = "deduplicate";
+
 	/**
 	 * @see TreeModelFlattener
 	 */
@@ -76,6 +85,19 @@ public interface HasTreeOptions extends HasSkLearnOptions, HasNativeConfiguratio
 	 */
 	String OPTION_NUMERIC = "numeric";
 
+	/**
+	 * Encode the members of a tree ensemble in parallel.
+	 *
+	 * <p>
+	 * Members are encoded in chunks, and every chunk uses its own {@link PredicateManager} and {@link ScoreDistributionManager} instances.
+	 * These instances are not merged afterwards, so predicate and score distribution objects are shared between the members of a chunk, but not between chunks.
+	 * The marshalled PMML document is unaffected, but the in-memory PMML object may hold more (equal) predicate and score distribution objects than with sequential encoding.
+	 * </p>
+	 *
+	 * @see TreeEnsembleUtil#encodeInParallel(java.util.List, java.util.function.Function)
+	 */
+	String OPTION_PARALLEL = "parallel";
+
 	/**
 	 * @see TreeModelPruner
 	 */
@@ -91,6 +113,7 @@ public interface HasTreeOptions extends HasSkLearnOptions, HasNativeConfiguratio
 	public Map<String, ?> getNativeConfiguration(){
 		Map<String, Object> result = new LinkedHashMap<>();
 		result.put(HasTreeOptions.OPTION_COMPACT, Boolean.FALSE);
+		result.put(HasTreeOptions.OPTION_DEDUPLICATE, Boolean.FALSE);
 		result.put(HasTreeOptions.OPTION_FLAT, Boolean.FALSE);
 		result.put(HasTreeOptions.OPTION_INPUT_FLOAT, Boolean.TRUE);
 		result.put(HasTreeOptions.OPTION_NODE_ID, Boolean.TRUE);
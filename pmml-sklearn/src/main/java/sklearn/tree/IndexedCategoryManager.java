@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sklearn.tree;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jpmml.converter.CategoryManager;
+
+/**
+ * <p>
+ * A {@link CategoryManager} counterpart for features that implement {@link HasThresholdIndex}.
+ * </p>
+ *
+ * <p>
+ * Valid categories are tracked as bitsets of {@link ThresholdIndex} positions.
+ * Forking copies the (small) name-to-bitset map, but never the category lists.
+ * Bitsets are shared between forks, and must not be modified after forking.
+ * </p>
+ */
+public class IndexedCategoryManager {
+
+	private Map<String, BitSet> valueSets = null;
+
+
+	public IndexedCategoryManager(){
+		this(Collections.emptyMap());
+	}
+
+	private IndexedCategoryManager(Map<String, BitSet> valueSets){
+		this.valueSets = valueSets;
+	}
+
+	/**
+	 * @return The bitset of valid categories, or <code>null</code> if all categories are valid.
+	 */
+	public BitSet getValueSet(String name){
+		return this.valueSets.get(name);
+	}
+
+	public IndexedCategoryManager fork(String name, BitSet valueSet){
+		Map<String, BitSet> valueSets = new HashMap<>(this.valueSets);
+
+		valueSets.put(name, valueSet);
+
+		return new IndexedCategoryManager(valueSets);
+	}
+}
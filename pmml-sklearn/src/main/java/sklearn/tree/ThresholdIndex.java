@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sklearn.tree;
+
+import java.util.Map;
+
+import org.jpmml.converter.ThresholdFeature;
+
+/**
+ * <p>
+ * A flat, array-backed view of the category mapping of a {@link ThresholdFeature}.
+ * </p>
+ *
+ * <p>
+ * Categories are kept in the iteration order of the mapping,
+ * so that partitions preserve the category order of {@link ThresholdFeature#getValues(java.util.function.Predicate)}.
+ * Mapped values are stored as primitive <code>float</code> keys.
+ * </p>
+ */
+public class ThresholdIndex {
+
+	private Object[] values = null;
+
+	private float[] keys = null;
+
+
+	public ThresholdIndex(Map<?, ? extends Number> mapping){
+		Object[] values = new Object[mapping.size()];
+		float[] keys = new float[mapping.size()];
+
+		int i = 0;
+
+		Iterable<? extends Map.Entry<?, ? extends Number>> entries = mapping.entrySet();
+		for(Map.Entry<?, ? extends Number> entry : entries){
+			values[i] = entry.getKey();
+			keys[i] = (entry.getValue()).floatValue();
+
+			i++;
+		}
+
+		this.values = values;
+		this.keys = keys;
+	}
+
+	public int size(){
+		return this.values.length;
+	}
+
+	public Object getValue(int index){
+		return this.values[index];
+	}
+
+	public float getKey(int index){
+		return this.keys[index];
+	}
+}
@@ -19,11 +19,13 @@
 package sklearn.tree;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import com.google.common.primitives.Doubles;
-import com.google.common.primitives.Ints;
+import numpy.core.NDArray;
 import org.jpmml.python.CythonObject;
+import org.jpmml.sklearn.NumberArrayUtil;
 
 public class Tree extends CythonObject {
 
@@ -37,40 +39,124 @@ public class Tree extends CythonObject {
 	}
 
 	public int[] getChildrenLeft(){
-		return Ints.toArray(getNodeAttribute("left_child"));
+		return getIntNodeAttribute("left_child");
 	}
 
 	public int[] getChildrenRight(){
-		return Ints.toArray(getNodeAttribute("right_child"));
+		return getIntNodeAttribute("right_child");
 	}
 
 	public int[] getFeature(){
-		return Ints.toArray(getNodeAttribute("feature"));
+		return getIntNodeAttribute("feature");
 	}
 
 	public double[] getThreshold(){
-		return Doubles.toArray(getNodeAttribute("threshold"));
+		Object nodes = get("nodes");
+
+		if(nodes instanceof NodeColumns){
+			NodeColumns nodeColumns = (NodeColumns)nodes;
+
+			return (double[])nodeColumns.get("threshold");
+		}
+
+		return NumberArrayUtil.toDoubleArray(getNodeAttribute("threshold"));
 	}
 
 	public int[] getNodeSamples(){
-		return Ints.toArray(getNodeAttribute("n_node_samples"));
+		return getIntNodeAttribute("n_node_samples");
 	}
 
 	public int[] getMissingGoToLeft(){
-		return Ints.toArray(getNodeAttribute("missing_go_to_left"));
+		return getIntNodeAttribute("missing_go_to_left");
 	}
 
 	public double[] getValues(){
-		return Doubles.toArray(getNumberArray("values"));
+		Object values = get("values");
+
+		if(values instanceof double[]){
+			return (double[])values;
+		}
+
+		return NumberArrayUtil.toDoubleArray(getNumberArray("values"));
+	}
+
+	private int[] getIntNodeAttribute(String key){
+		Object nodes = get("nodes");
+
+		if(nodes instanceof NodeColumns){
+			NodeColumns nodeColumns = (NodeColumns)nodes;
+
+			if(!nodeColumns.containsKey(key)){
+				throw new IllegalArgumentException("Node attribute \"" + key + "\" is not defined");
+			}
+
+			return (int[])nodeColumns.get(key);
+		}
+
+		return NumberArrayUtil.toIntArray(getNodeAttribute(key));
+	}
+
+	private List<?> getNodeAttribute(String key){
+		return getArray("nodes", key);
 	}
 
-	private List<Number> getNodeAttribute(String key){
-		return (List)getArray("nodes", key);
+	/**
+	 * <p>
+	 * Replaces the unpickled node attribute columns and node values with Java primitive arrays.
+	 * Node attributes that are not needed for conversion are dropped.
+	 * </p>
+	 *
+	 * <p>
+	 * Unpickled columns hold boxed values, which take several times more heap space than primitive values.
+	 * Compacting every tree as soon as it has been unpickled means that at most one tree is held in boxed form at a time.
+	 * After compaction, all getter methods return the same array instances, which must not be modified.
+	 * </p>
+	 */
+	public void compact(){
+		Object nodes = get("nodes");
+
+		if(nodes instanceof NDArray){
+			NDArray array = (NDArray)nodes;
+
+			Object content = array.getContent();
+
+			if(content instanceof Map){
+				Map<?, ?> columns = (Map<?, ?>)content;
+
+				NodeColumns nodeColumns = new NodeColumns();
+
+				for(String key : Tree.INT_COLUMNS){
+
+					if(columns.containsKey(key)){
+						nodeColumns.put(key, NumberArrayUtil.toIntArray(getNodeAttribute(key)));
+					}
+				}
+
+				nodeColumns.put("threshold", NumberArrayUtil.toDoubleArray(getNodeAttribute("threshold")));
+
+				put("nodes", nodeColumns);
+			}
+		}
+
+		Object values = get("values");
+
+		if(values instanceof NDArray){
+			put("values", NumberArrayUtil.toDoubleArray(getNumberArray("values")));
+		}
+	}
+
+	/**
+	 * A holder of node attribute columns, keyed by node attribute name.
+	 */
+	static
+	private class NodeColumns extends HashMap<String, Object> {
 	}
 
 	public static final List<String> DTYPE_TREE_OLD = Arrays.asList("left_child", "right_child", "feature", "threshold", "impurity", "n_node_samples", "weighted_n_node_samples");
 	public static final List<String> DTYPE_TREE_NEW = Arrays.asList("left_child", "right_child", "feature", "threshold", "impurity", "n_node_samples", "weighted_n_node_samples", "missing_go_to_left");
 
+	private static final List<String> INT_COLUMNS = Arrays.asList("left_child", "right_child", "feature", "n_node_samples", "missing_go_to_left");
+
 	private static final String[] INIT_ATTRIBUTES = {
 		"n_features",
 		"n_classes",
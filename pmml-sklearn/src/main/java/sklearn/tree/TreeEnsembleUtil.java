@@ -18,15 +18,45 @@
  */
 package sklearn.tree;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
+import org.dmg.pmml.Array;
+import org.dmg.pmml.CompoundPredicate;
+import org.dmg.pmml.DataType;
+import org.dmg.pmml.False;
 import org.dmg.pmml.MiningFunction;
+import org.dmg.pmml.Predicate;
+import org.dmg.pmml.ScoreDistribution;
+import org.dmg.pmml.SimplePredicate;
+import org.dmg.pmml.SimpleSetPredicate;
+import org.dmg.pmml.True;
+import org.dmg.pmml.mining.MiningModel;
+import org.dmg.pmml.mining.Segment;
+import org.dmg.pmml.mining.Segmentation;
+import org.dmg.pmml.tree.Node;
 import org.dmg.pmml.tree.TreeModel;
+import org.jpmml.converter.BinaryFeature;
+import org.jpmml.converter.Feature;
+import org.jpmml.converter.MissingValueFeature;
 import org.jpmml.converter.PredicateManager;
 import org.jpmml.converter.Schema;
 import org.jpmml.converter.ScoreDistributionManager;
+import org.jpmml.converter.ThresholdFeature;
+import org.jpmml.converter.ValueUtil;
+import org.jpmml.model.UnsupportedAttributeException;
+import org.jpmml.sklearn.SkLearnException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import sklearn.Estimator;
 import sklearn.HasEstimatorEnsemble;
 
@@ -36,33 +66,442 @@ public class TreeEnsembleUtil {
 	}
 
 	static
-	public <E extends Estimator & HasEstimatorEnsemble<T>, T extends Estimator & HasTree> List<TreeModel> encodeTreeModelEnsemble(E estimator, MiningFunction miningFunction, Schema schema){
+	public <E extends Estimator & HasEstimatorEnsemble<T> & HasTreeOptions, T extends Estimator & HasTree> List<TreeModel> encodeTreeModelEnsemble(E estimator, MiningFunction miningFunction, Schema schema){
 		List<? extends T> estimators = estimator.getEstimators();
 
+		Boolean parallel = (Boolean)estimator.getPMMLOption(HasTreeOptions.OPTION_PARALLEL, Boolean.FALSE);
+
+		// Member tree models are configured using the options of the ensemble
+		boolean prune = TreeUtil.isPrune(estimator);
+
 		Schema segmentSchema = schema.toAnonymousSchema();
 
+		List<TreeModel> treeModels;
+
+		if(parallel){
+			treeModels = encodeTreeModelsInParallel(estimators, miningFunction, prune, segmentSchema);
+		} else
+
+		{
+			treeModels = encodeTreeModels(estimators, miningFunction, prune, segmentSchema);
+		}
+
+		// Feature importances are collected by the encoder, which is not thread-safe
+		Schema featureImportanceSchema = null;
+
+		for(int i = 0; i < estimators.size(); i++){
+			T treeEstimator = estimators.get(i);
+			TreeModel treeModel = treeModels.get(i);
+
+			// XXX
+			if(treeEstimator.hasFeatureImportances()){
+
+				if(featureImportanceSchema == null){
+					featureImportanceSchema = TreeUtil.toTreeModelFeatureImportanceSchema(segmentSchema);
+				}
+
+				treeEstimator.addFeatureImportances(treeModel, featureImportanceSchema);
+			}
+		}
+
+		return treeModels;
+	}
+
+	static
+	private <T extends Estimator & HasTree> List<TreeModel> encodeTreeModels(List<? extends T> estimators, MiningFunction miningFunction, boolean prune, Schema schema){
 		PredicateManager predicateManager = new PredicateManager();
 		ScoreDistributionManager scoreDistributionManager = (miningFunction == MiningFunction.CLASSIFICATION) ? new ScoreDistributionManager() : null;
 
-		Function<T, TreeModel> function = new Function<T, TreeModel>(){
+		List<TreeModel> result = new ArrayList<>(estimators.size());
+
+		for(T estimator : estimators){
+			TreeModel treeModel = TreeUtil.encodeTreeModel(estimator, miningFunction, prune, predicateManager, scoreDistributionManager, schema);
+
+			result.add(treeModel);
+		}
+
+		return result;
+	}
+
+	static
+	private <T extends Estimator & HasTree> List<TreeModel> encodeTreeModelsInParallel(List<? extends T> estimators, MiningFunction miningFunction, boolean prune, Schema schema){
+		// Derived fields must be created before entering the parallel section
+		ensureContinuousFeatures(estimators, schema);
+
+		return encodeInParallel(estimators, chunkEstimators -> encodeTreeModels(chunkEstimators, miningFunction, prune, schema));
+	}
+
+	/**
+	 * <p>
+	 * Splits the list of elements into contiguous chunks, and encodes them on the common fork-join pool.
+	 * </p>
+	 *
+	 * <p>
+	 * Neither {@link PredicateManager} nor {@link ScoreDistributionManager} is thread-safe.
+	 * Every chunk should be encoded using its own pair of managers,
+	 * so predicates and score distributions are shared between the trees of a chunk, but not between chunks.
+	 * The chunks are joined in their original order, so the resulting list of tree models
+	 * (and the PMML document built from it) is identical to the one produced by sequential encoding.
+	 * </p>
+	 *
+	 * <p>
+	 * The encoder is not thread-safe either.
+	 * All derived fields must be created before calling this method.
+	 * </p>
+	 */
+	static
+	public <T> List<TreeModel> encodeInParallel(List<? extends T> elements, Function<List<? extends T>, List<TreeModel>> function){
+		ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+
+		int chunks = Math.max(forkJoinPool.getParallelism() * 4, 1);
+		int chunkSize = Math.max((elements.size() + (chunks - 1)) / chunks, 1);
+
+		List<ForkJoinTask<List<TreeModel>>> tasks = new ArrayList<>();
+
+		for(int begin = 0; begin < elements.size(); begin += chunkSize){
+			List<? extends T> chunkElements = elements.subList(begin, Math.min(begin + chunkSize, elements.size()));
+
+			Callable<List<TreeModel>> callable = () -> function.apply(chunkElements);
+
+			tasks.add(forkJoinPool.submit(callable));
+		}
+
+		List<TreeModel> result = new ArrayList<>(elements.size());
+
+		for(ForkJoinTask<List<TreeModel>> task : tasks){
+			result.addAll(task.join());
+		}
+
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Merges structurally identical tree models into one segment,
+	 * whose weight is the sum of the weights of the merged segments.
+	 * The (unweighted) average and sum aggregation methods are replaced with their weighted counterparts,
+	 * which makes the predictions of the mining model unchanged.
+	 * </p>
+	 *
+	 * <p>
+	 * Tree models are compared node by node.
+	 * Simple, simple set, compound and constant predicates are compared by value, so that tree models
+	 * that were encoded using different {@link PredicateManager} instances (eg. in parallel) can be merged.
+	 * Other predicates are compared by identity.
+	 * </p>
+	 */
+	static
+	public <E extends Estimator & HasTreeOptions> void deduplicateSegments(E estimator, MiningModel miningModel){
+		Boolean deduplicate = (Boolean)estimator.getPMMLOption(HasTreeOptions.OPTION_DEDUPLICATE, Boolean.FALSE);
+
+		if(!deduplicate){
+			return;
+		}
 
-			@Override
-			public TreeModel apply(T estimator){
-				TreeModel treeModel = TreeUtil.encodeTreeModel(estimator, miningFunction, predicateManager, scoreDistributionManager, segmentSchema);
+		Boolean winnerId = (Boolean)estimator.getPMMLOption(HasTreeOptions.OPTION_WINNER_ID, Boolean.FALSE);
 
-				// XXX
-				if(estimator.hasFeatureImportances()){
-					Schema featureImportanceSchema = TreeUtil.toTreeModelFeatureImportanceSchema(segmentSchema);
+		// Winner identifiers are reported per segment
+		if(winnerId){
+			throw new SkLearnException("Conflicting tree model options");
+		}
 
-					estimator.addFeatureImportances(treeModel, featureImportanceSchema);
+		Segmentation segmentation = miningModel.requireSegmentation();
+
+		Segmentation.MultipleModelMethod multipleModelMethod = segmentation.getMultipleModelMethod();
+		switch(multipleModelMethod){
+			case AVERAGE:
+			case WEIGHTED_AVERAGE:
+				multipleModelMethod = Segmentation.MultipleModelMethod.WEIGHTED_AVERAGE;
+				break;
+			case SUM:
+			case WEIGHTED_SUM:
+				multipleModelMethod = Segmentation.MultipleModelMethod.WEIGHTED_SUM;
+				break;
+			default:
+				throw new UnsupportedAttributeException(segmentation, multipleModelMethod);
+		}
+
+		List<Segment> segments = segmentation.requireSegments();
+
+		Map<Integer, List<Segment>> hashCodeSegments = new HashMap<>();
+
+		List<Segment> uniqueSegments = new ArrayList<>(segments.size());
+
+		segments:
+		for(Segment segment : segments){
+			TreeModel treeModel = segment.requireModel(TreeModel.class);
+
+			List<Segment> candidateSegments = hashCodeSegments.computeIfAbsent(hashCode(treeModel), key -> new ArrayList<>(1));
+
+			for(Segment candidateSegment : candidateSegments){
+				TreeModel candidateTreeModel = candidateSegment.requireModel(TreeModel.class);
+
+				if(equals(candidateTreeModel, treeModel)){
+					Number weight = candidateSegment.getWeight();
+
+					candidateSegment.setWeight(ValueUtil.narrow(weight.doubleValue() + (segment.getWeight()).doubleValue()));
+
+					continue segments;
 				}
+			}
+
+			candidateSegments.add(segment);
+
+			uniqueSegments.add(segment);
+		}
+
+		int duplicates = (segments.size() - uniqueSegments.size());
+		if(duplicates == 0){
+			return;
+		}
+
+		logger.info("Merged {} duplicate tree model(s), keeping {} unique tree model(s)", duplicates, uniqueSegments.size());
 
-				return treeModel;
+		segments.clear();
+		segments.addAll(uniqueSegments);
+
+		segmentation.setMultipleModelMethod(multipleModelMethod);
+	}
+
+	static
+	private int hashCode(TreeModel treeModel){
+		int result = Objects.hash(treeModel.getMiningFunction(), treeModel.getMissingValueStrategy(), treeModel.getNoTrueChildStrategy(), treeModel.getSplitCharacteristic());
+
+		Deque<Node> nodes = new ArrayDeque<>();
+		nodes.push(treeModel.getNode());
+
+		while(!nodes.isEmpty()){
+			Node node = nodes.pop();
+
+			result = 31 * result + Objects.hash(node.getId(), node.getScore(), node.getRecordCount(), node.getDefaultChild());
+			result = 31 * result + hashCode(node.getPredicate());
+
+			if(node.hasScoreDistributions()){
+				List<ScoreDistribution> scoreDistributions = node.getScoreDistributions();
+
+				for(ScoreDistribution scoreDistribution : scoreDistributions){
+					result = 31 * result + Objects.hash(scoreDistribution.getValue(), scoreDistribution.getRecordCount(), scoreDistribution.getProbability(), scoreDistribution.getConfidence());
+				}
+			} // End if
+
+			if(node.hasNodes()){
+				List<Node> children = node.getNodes();
+
+				result = 31 * result + children.size();
+
+				for(Node child : children){
+					nodes.push(child);
+				}
 			}
-		};
+		}
 
-		return estimators.stream()
-			.map(function)
-			.collect(Collectors.toList());
+		return result;
 	}
-}
\ No newline at end of file
+
+	static
+	private int hashCode(Predicate predicate){
+
+		if(predicate instanceof SimplePredicate){
+			SimplePredicate simplePredicate = (SimplePredicate)predicate;
+
+			return Objects.hash(simplePredicate.getField(), simplePredicate.getOperator(), simplePredicate.getValue());
+		} else
+
+		if(predicate instanceof SimpleSetPredicate){
+			SimpleSetPredicate simpleSetPredicate = (SimpleSetPredicate)predicate;
+
+			Array array = simpleSetPredicate.requireArray();
+
+			return Objects.hash(simpleSetPredicate.getField(), simpleSetPredicate.getBooleanOperator(), array.getType(), array.getValue());
+		} else
+
+		if(predicate instanceof CompoundPredicate){
+			CompoundPredicate compoundPredicate = (CompoundPredicate)predicate;
+
+			int result = Objects.hashCode(compoundPredicate.getBooleanOperator());
+
+			List<Predicate> predicates = compoundPredicate.getPredicates();
+			for(Predicate childPredicate : predicates){
+				result = 31 * result + hashCode(childPredicate);
+			}
+
+			return result;
+		} else
+
+		if((predicate instanceof True) || (predicate instanceof False)){
+			return (predicate.getClass()).hashCode();
+		}
+
+		return System.identityHashCode(predicate);
+	}
+
+	static
+	private boolean equals(TreeModel left, TreeModel right){
+
+		if(left.getMiningFunction() != right.getMiningFunction() || left.getMissingValueStrategy() != right.getMissingValueStrategy() || left.getNoTrueChildStrategy() != right.getNoTrueChildStrategy() || left.getSplitCharacteristic() != right.getSplitCharacteristic()){
+			return false;
+		}
+
+		Deque<Node> leftNodes = new ArrayDeque<>();
+		leftNodes.push(left.getNode());
+
+		Deque<Node> rightNodes = new ArrayDeque<>();
+		rightNodes.push(right.getNode());
+
+		while(!leftNodes.isEmpty()){
+			Node leftNode = leftNodes.pop();
+			Node rightNode = rightNodes.pop();
+
+			if(!Objects.equals(leftNode.getId(), rightNode.getId()) || !Objects.equals(leftNode.getScore(), rightNode.getScore()) || !Objects.equals(leftNode.getRecordCount(), rightNode.getRecordCount()) || !Objects.equals(leftNode.getDefaultChild(), rightNode.getDefaultChild())){
+				return false;
+			} // End if
+
+			if(!equals(leftNode.getPredicate(), rightNode.getPredicate())){
+				return false;
+			} // End if
+
+			if(leftNode.hasScoreDistributions() || rightNode.hasScoreDistributions()){
+
+				if(!leftNode.hasScoreDistributions() || !rightNode.hasScoreDistributions()){
+					return false;
+				}
+
+				List<ScoreDistribution> leftScoreDistributions = leftNode.getScoreDistributions();
+				List<ScoreDistribution> rightScoreDistributions = rightNode.getScoreDistributions();
+
+				if(leftScoreDistributions.size() != rightScoreDistributions.size()){
+					return false;
+				}
+
+				for(int i = 0; i < leftScoreDistributions.size(); i++){
+					ScoreDistribution leftScoreDistribution = leftScoreDistributions.get(i);
+					ScoreDistribution rightScoreDistribution = rightScoreDistributions.get(i);
+
+					if(leftScoreDistribution == rightScoreDistribution){
+						continue;
+					} // End if
+
+					if(!Objects.equals(leftScoreDistribution.getValue(), rightScoreDistribution.getValue()) || !Objects.equals(leftScoreDistribution.getRecordCount(), rightScoreDistribution.getRecordCount()) || !Objects.equals(leftScoreDistribution.getProbability(), rightScoreDistribution.getProbability()) || !Objects.equals(leftScoreDistribution.getConfidence(), rightScoreDistribution.getConfidence())){
+						return false;
+					}
+				}
+			} // End if
+
+			if(leftNode.hasNodes() || rightNode.hasNodes()){
+
+				if(!leftNode.hasNodes() || !rightNode.hasNodes()){
+					return false;
+				}
+
+				List<Node> leftChildren = leftNode.getNodes();
+				List<Node> rightChildren = rightNode.getNodes();
+
+				if(leftChildren.size() != rightChildren.size()){
+					return false;
+				}
+
+				for(int i = 0; i < leftChildren.size(); i++){
+					leftNodes.push(leftChildren.get(i));
+					rightNodes.push(rightChildren.get(i));
+				}
+			}
+		}
+
+		return true;
+	}
+
+	static
+	private boolean equals(Predicate left, Predicate right){
+
+		if(left == right){
+			return true;
+		} // End if
+
+		if((left instanceof SimplePredicate) && (right instanceof SimplePredicate)){
+			SimplePredicate leftSimplePredicate = (SimplePredicate)left;
+			SimplePredicate rightSimplePredicate = (SimplePredicate)right;
+
+			return Objects.equals(leftSimplePredicate.getField(), rightSimplePredicate.getField()) && Objects.equals(leftSimplePredicate.getOperator(), rightSimplePredicate.getOperator()) && Objects.equals(leftSimplePredicate.getValue(), rightSimplePredicate.getValue());
+		} else
+
+		if((left instanceof SimpleSetPredicate) && (right instanceof SimpleSetPredicate)){
+			SimpleSetPredicate leftSimpleSetPredicate = (SimpleSetPredicate)left;
+			SimpleSetPredicate rightSimpleSetPredicate = (SimpleSetPredicate)right;
+
+			Array leftArray = leftSimpleSetPredicate.requireArray();
+			Array rightArray = rightSimpleSetPredicate.requireArray();
+
+			return Objects.equals(leftSimpleSetPredicate.getField(), rightSimpleSetPredicate.getField()) && Objects.equals(leftSimpleSetPredicate.getBooleanOperator(), rightSimpleSetPredicate.getBooleanOperator()) && Objects.equals(leftArray.getType(), rightArray.getType()) && Objects.equals(leftArray.getValue(), rightArray.getValue());
+		} else
+
+		if((left instanceof CompoundPredicate) && (right instanceof CompoundPredicate)){
+			CompoundPredicate leftCompoundPredicate = (CompoundPredicate)left;
+			CompoundPredicate rightCompoundPredicate = (CompoundPredicate)right;
+
+			if(!Objects.equals(leftCompoundPredicate.getBooleanOperator(), rightCompoundPredicate.getBooleanOperator())){
+				return false;
+			}
+
+			List<Predicate> leftPredicates = leftCompoundPredicate.getPredicates();
+			List<Predicate> rightPredicates = rightCompoundPredicate.getPredicates();
+
+			if(leftPredicates.size() != rightPredicates.size()){
+				return false;
+			}
+
+			for(int i = 0; i < leftPredicates.size(); i++){
+
+				if(!equals(leftPredicates.get(i), rightPredicates.get(i))){
+					return false;
+				}
+			}
+
+			return true;
+		} else
+
+		if((left instanceof True) && (right instanceof True)){
+			return true;
+		} else
+
+		if((left instanceof False) && (right instanceof False)){
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * <p>
+	 * Creates derived fields for those features that are split on by at least one tree.
+	 * Unused features are left untouched, so that lazily encoded features stay unencoded.
+	 * </p>
+	 */
+	static
+	private <T extends Estimator & HasTree> void ensureContinuousFeatures(List<? extends T> estimators, Schema schema){
+		boolean[] ensured = new boolean[(schema.getFeatures()).size()];
+
+		for(T estimator : estimators){
+			Tree tree = estimator.getTree();
+
+			int[] features = tree.getFeature();
+
+			for(int index = 0; index < features.length; index++){
+				int featureIndex = features[index];
+
+				if(featureIndex < 0 || ensured[featureIndex]){
+					continue;
+				}
+
+				Feature feature = schema.getFeature(featureIndex);
+
+				if(!(feature instanceof BinaryFeature) && !(feature instanceof MissingValueFeature) && !(feature instanceof ThresholdFeature)){
+					feature.toContinuousFeature(DataType.FLOAT);
+				}
+
+				ensured[featureIndex] = true;
+			}
+		}
+	}
+
+	private static final Logger logger = LoggerFactory.getLogger(TreeEnsembleUtil.class);
+}
@@ -21,27 +21,24 @@ package sklearn.tree;
 import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import com.google.common.primitives.Doubles;
-import numpy.core.ScalarUtil;
 import org.dmg.pmml.DataType;
 import org.dmg.pmml.Field;
-import org.dmg.pmml.HasExtensions;
 import org.dmg.pmml.MiningFunction;
 import org.dmg.pmml.Model;
 import org.dmg.pmml.PMMLConstants;
 import org.dmg.pmml.Predicate;
-import org.dmg.pmml.ScoreDistribution;
 import org.dmg.pmml.SimplePredicate;
 import org.dmg.pmml.True;
 import org.dmg.pmml.Visitor;
-import org.dmg.pmml.VisitorAction;
 import org.dmg.pmml.mining.MiningModel;
 import org.dmg.pmml.mining.Segment;
 import org.dmg.pmml.mining.Segmentation;
@@ -49,8 +46,6 @@ import org.dmg.pmml.tree.BranchNode;
 import org.dmg.pmml.tree.ClassifierNode;
 import org.dmg.pmml.tree.LeafNode;
 import org.dmg.pmml.tree.Node;
-import org.dmg.pmml.tree.NodeTransformer;
-import org.dmg.pmml.tree.SimplifyingNodeTransformer;
 import org.dmg.pmml.tree.TreeModel;
 import org.jpmml.converter.BinaryFeature;
 import org.jpmml.converter.CategoricalLabel;
@@ -67,18 +62,21 @@ import org.jpmml.converter.ScoreDistributionManager;
 import org.jpmml.converter.ThresholdFeature;
 import org.jpmml.converter.ThresholdFeatureUtil;
 import org.jpmml.converter.ValueUtil;
-import org.jpmml.converter.visitors.AbstractExtender;
 import org.jpmml.model.UnsupportedElementException;
-import org.jpmml.model.visitors.AbstractVisitor;
 import org.jpmml.python.ClassDictUtil;
+import org.jpmml.sklearn.ConversionMetrics;
 import org.jpmml.sklearn.FloatUtil;
+import org.jpmml.sklearn.LazyFeature;
 import org.jpmml.sklearn.SkLearnException;
+import org.jpmml.sklearn.jfr.TreeEncodeEvent;
+import org.jpmml.sklearn.jfr.TreeModelVisitEvent;
 import sklearn.Estimator;
 import sklearn.EstimatorCastException;
 import sklearn.HasApplyField;
 import sklearn.HasMultiApplyField;
 import sklearn.StepUtil;
 import sklearn.VersionUtil;
+import sklearn.tree.visitors.TreeModelCleaner;
 import sklearn.tree.visitors.TreeModelCompactor;
 import sklearn.tree.visitors.TreeModelFlattener;
 import sklearn.tree.visitors.TreeModelPruner;
@@ -105,6 +103,18 @@ public class TreeUtil {
 
 	static
 	public <E extends Estimator & HasTree> TreeModel encodeTreeModel(E estimator, MiningFunction miningFunction, PredicateManager predicateManager, ScoreDistributionManager scoreDistributionManager, Schema schema){
+		return encodeTreeModel(estimator, miningFunction, false, predicateManager, scoreDistributionManager, schema);
+	}
+
+	/**
+	 * @param prune <code>true</code> if invariant subtrees should be pruned during encoding.
+	 * The result is identical to that of {@link TreeModelPruner}, except that pruned nodes are never allocated.
+	 * Node scores must not be transformed (other than value by value) between encoding and configuration.
+	 *
+	 * @see #isPrune(Estimator)
+	 */
+	static
+	public <E extends Estimator & HasTree> TreeModel encodeTreeModel(E estimator, MiningFunction miningFunction, boolean prune, PredicateManager predicateManager, ScoreDistributionManager scoreDistributionManager, Schema schema){
 		Tree tree = estimator.getTree();
 		boolean hasMissingValueSupport = estimator.hasMissingValueSupport();
 
@@ -115,7 +125,17 @@ public class TreeUtil {
 		double[] values = tree.getValues();
 		int[] missingGoToLeft = hasMissingValueSupport ? tree.getMissingGoToLeft() : null;
 
-		Node root = encodeNode(0, True.INSTANCE, miningFunction, leftChildren, rightChildren, features, thresholds, values, missingGoToLeft, new CategoryManager(), predicateManager, scoreDistributionManager, schema);
+		TreeEncodeEvent event = new TreeEncodeEvent();
+		event.begin();
+
+		Node root = encodeNode(miningFunction, leftChildren, rightChildren, features, thresholds, values, missingGoToLeft, prune, predicateManager, scoreDistributionManager, schema);
+
+		event.end();
+
+		if(event.shouldCommit()){
+			event.nodeCount = leftChildren.length;
+			event.commit();
+		}
 
 		TreeModel treeModel = new TreeModel(miningFunction, ModelUtil.createMiningSchema(schema), root)
 			.setSplitCharacteristic(TreeModel.SplitCharacteristic.BINARY_SPLIT)
@@ -126,195 +146,367 @@ public class TreeUtil {
 		return treeModel;
 	}
 
+	/**
+	 * <p>
+	 * Encodes a SkLearn-style binary tree in depth-first, left-to-right order.
+	 * </p>
+	 *
+	 * <p>
+	 * The traversal is driven by an explicit stack (instead of the call stack),
+	 * so that there is no practical limit to the depth of the tree.
+	 * Stack slots are reused between sibling subtrees.
+	 * </p>
+	 *
+	 * <p>
+	 * When pruning, the children of a regression node are not visited if their scores equal the score of the node.
+	 * </p>
+	 */
 	static
-	private Node encodeNode(int index, Predicate predicate, MiningFunction miningFunction, int[] leftChildren, int[] rightChildren, int[] features, double[] thresholds, double[] values, int[] missingGoToLeft, CategoryManager categoryManager, PredicateManager predicateManager, ScoreDistributionManager scoreDistributionManager, Schema schema){
-		Integer id = Integer.valueOf(index);
+	private Node encodeNode(MiningFunction miningFunction, int[] leftChildren, int[] rightChildren, int[] features, double[] thresholds, double[] values, int[] missingGoToLeft, boolean prune, PredicateManager predicateManager, ScoreDistributionManager scoreDistributionManager, Schema schema){
+		int capacity = 64;
 
-		int featureIndex = features[index];
+		int[] stackIndices = new int[capacity];
+		Predicate[] stackPredicates = new Predicate[capacity];
+		CategoryManager[] stackCategoryManagers = new CategoryManager[capacity];
+		IndexedCategoryManager[] stackIndexedCategoryManagers = new IndexedCategoryManager[capacity];
+		Node[] stackParents = new Node[capacity];
 
-		// A non-leaf (binary split) node
-		if(featureIndex >= 0){
-			Feature feature = schema.getFeature(featureIndex);
+		int size = 0;
 
-			double threshold = thresholds[index];
+		stackIndices[size] = 0;
+		stackPredicates[size] = True.INSTANCE;
+		stackCategoryManagers[size] = new CategoryManager();
+		stackIndexedCategoryManagers[size] = new IndexedCategoryManager();
+		stackParents[size] = null;
 
-			CategoryManager leftCategoryManager = categoryManager;
-			CategoryManager rightCategoryManager = categoryManager;
+		size++;
 
-			Predicate leftPredicate;
-			Predicate rightPredicate;
+		Node root = null;
 
-			Boolean defaultLeft = null;
+		while(size > 0){
+			size--;
 
-			if(missingGoToLeft != null){
-				defaultLeft = (missingGoToLeft[index] == 1);
-			} // End if
+			int index = stackIndices[size];
+			Predicate predicate = stackPredicates[size];
+			CategoryManager categoryManager = stackCategoryManagers[size];
+			IndexedCategoryManager indexedCategoryManager = stackIndexedCategoryManagers[size];
+			Node parent = stackParents[size];
 
-			if(feature instanceof BinaryFeature){
-				BinaryFeature binaryFeature = (BinaryFeature)feature;
+			stackPredicates[size] = null;
+			stackCategoryManagers[size] = null;
+			stackIndexedCategoryManagers[size] = null;
+			stackParents[size] = null;
 
-				if(threshold < 0 || threshold > 1){
-					throw new SkLearnException("Expected [0, 1] range threshold value, got " + threshold);
-				}
+			Integer id = Integer.valueOf(index);
 
-				Object value = binaryFeature.getValue();
+			int featureIndex = features[index];
 
-				leftPredicate = predicateManager.createSimplePredicate(binaryFeature, SimplePredicate.Operator.NOT_EQUAL, value);
-				rightPredicate = predicateManager.createSimplePredicate(binaryFeature, SimplePredicate.Operator.EQUAL, value);
+			Node result;
+
+			// A non-leaf (binary split) node
+			if(featureIndex >= 0){
+				Feature feature = schema.getFeature(featureIndex);
+
+				double threshold = thresholds[index];
+
+				CategoryManager leftCategoryManager = categoryManager;
+				CategoryManager rightCategoryManager = categoryManager;
+
+				IndexedCategoryManager leftIndexedCategoryManager = indexedCategoryManager;
+				IndexedCategoryManager rightIndexedCategoryManager = indexedCategoryManager;
+
+				Predicate leftPredicate;
+				Predicate rightPredicate;
+
+				Boolean defaultLeft = null;
 
-				// XXX
 				if(missingGoToLeft != null){
-					defaultLeft = Boolean.TRUE;
-				}
-			} else
+					defaultLeft = (missingGoToLeft[index] == 1);
+				} // End if
 
-			if(feature instanceof MissingValueFeature){
-				MissingValueFeature missingValueFeature = (MissingValueFeature)feature;
+				if(feature instanceof BinaryFeature){
+					BinaryFeature binaryFeature = (BinaryFeature)feature;
 
-				if(threshold != 0.5d){
-					throw new SkLearnException("Expected 0.5 threshold value, got " + threshold);
-				}
+					if(threshold < 0 || threshold > 1){
+						throw new SkLearnException("Expected [0, 1] range threshold value, got " + threshold);
+					}
 
-				leftPredicate = predicateManager.createSimplePredicate(missingValueFeature, SimplePredicate.Operator.IS_NOT_MISSING, null);
-				rightPredicate = predicateManager.createSimplePredicate(missingValueFeature, SimplePredicate.Operator.IS_MISSING, null);
-			} else
+					Object value = binaryFeature.getValue();
 
-			if(feature instanceof ThresholdFeature){
-				ThresholdFeature thresholdFeature = (ThresholdFeature)feature;
+					leftPredicate = predicateManager.createSimplePredicate(binaryFeature, SimplePredicate.Operator.NOT_EQUAL, value);
+					rightPredicate = predicateManager.createSimplePredicate(binaryFeature, SimplePredicate.Operator.EQUAL, value);
 
-				String name = thresholdFeature.getName();
+					// XXX
+					if(missingGoToLeft != null){
+						defaultLeft = Boolean.TRUE;
+					}
+				} else
 
-				Object missingValue = thresholdFeature.getMissingValue();
+				if(feature instanceof MissingValueFeature){
+					MissingValueFeature missingValueFeature = (MissingValueFeature)feature;
 
-				java.util.function.Predicate<Object> valueFilter = categoryManager.getValueFilter(name);
+					if(threshold != 0.5d){
+						throw new SkLearnException("Expected 0.5 threshold value, got " + threshold);
+					}
 
-				if(!ValueUtil.isNaN(missingValue)){
-					valueFilter = valueFilter.and(value -> !ValueUtil.isNaN(value));
-				}
+					leftPredicate = predicateManager.createSimplePredicate(missingValueFeature, SimplePredicate.Operator.IS_NOT_MISSING, null);
+					rightPredicate = predicateManager.createSimplePredicate(missingValueFeature, SimplePredicate.Operator.IS_MISSING, null);
+				} else
 
-				float floatThreshold = toFloatThreshold(threshold);
+				if(feature instanceof ThresholdFeature){
+					ThresholdFeature thresholdFeature = (ThresholdFeature)feature;
 
-				List<Object> leftValues = thresholdFeature.getValues((Number value) -> (value.floatValue() <= floatThreshold)).stream()
-					.filter(valueFilter)
-					.collect(Collectors.toList());
+					String name = thresholdFeature.getName();
 
-				List<Object> rightValues = thresholdFeature.getValues((Number value) -> (value.floatValue() > floatThreshold)).stream()
-					.filter(valueFilter)
-					.collect(Collectors.toList());
+					Object missingValue = thresholdFeature.getMissingValue();
 
-				leftCategoryManager = leftCategoryManager.fork(name, leftValues);
-				rightCategoryManager = rightCategoryManager.fork(name, rightValues);
+					float floatThreshold = toFloatThreshold(threshold);
 
-				leftPredicate = ThresholdFeatureUtil.createPredicate(thresholdFeature, leftValues, missingValue, predicateManager);
-				rightPredicate = ThresholdFeatureUtil.createPredicate(thresholdFeature, rightValues, missingValue, predicateManager);
-			} else
+					List<Object> leftValues;
+					List<Object> rightValues;
 
-			{
-				ContinuousFeature continuousFeature = feature.toContinuousFeature(DataType.FLOAT);
+					if(thresholdFeature instanceof HasThresholdIndex){
+						ThresholdIndex thresholdIndex = ((HasThresholdIndex)thresholdFeature).getThresholdIndex();
+
+						BitSet valueSet = indexedCategoryManager.getValueSet(name);
+						if(valueSet == null){
+							valueSet = createValueSet(thresholdIndex, missingValue);
+						}
 
-				Object value;
+						BitSet leftValueSet = new BitSet(thresholdIndex.size());
+						BitSet rightValueSet = new BitSet(thresholdIndex.size());
 
-				// Happens when missing values are allowed
-				if(threshold == Double.POSITIVE_INFINITY){
-					value = PMMLConstants.POSITIVE_INFINITY;
+						leftValues = new ArrayList<>();
+						rightValues = new ArrayList<>();
+
+						for(int i = valueSet.nextSetBit(0); i >= 0; i = valueSet.nextSetBit(i + 1)){
+							float key = thresholdIndex.getKey(i);
+
+							if(key <= floatThreshold){
+								leftValueSet.set(i);
+								leftValues.add(thresholdIndex.getValue(i));
+							} else
+
+							if(key > floatThreshold){
+								rightValueSet.set(i);
+								rightValues.add(thresholdIndex.getValue(i));
+							}
+						}
+
+						leftIndexedCategoryManager = leftIndexedCategoryManager.fork(name, leftValueSet);
+						rightIndexedCategoryManager = rightIndexedCategoryManager.fork(name, rightValueSet);
+					} else
+
+					{
+						java.util.function.Predicate<Object> valueFilter = categoryManager.getValueFilter(name);
+
+						if(!ValueUtil.isNaN(missingValue)){
+							valueFilter = valueFilter.and(value -> !ValueUtil.isNaN(value));
+						}
+
+						leftValues = thresholdFeature.getValues((Number value) -> (value.floatValue() <= floatThreshold)).stream()
+							.filter(valueFilter)
+							.collect(Collectors.toList());
+
+						rightValues = thresholdFeature.getValues((Number value) -> (value.floatValue() > floatThreshold)).stream()
+							.filter(valueFilter)
+							.collect(Collectors.toList());
+
+						leftCategoryManager = leftCategoryManager.fork(name, leftValues);
+						rightCategoryManager = rightCategoryManager.fork(name, rightValues);
+					}
+
+					leftPredicate = ThresholdFeatureUtil.createPredicate(thresholdFeature, leftValues, missingValue, predicateManager);
+					rightPredicate = ThresholdFeatureUtil.createPredicate(thresholdFeature, rightValues, missingValue, predicateManager);
 				} else
 
 				{
-					value = toFloatThreshold(threshold);
+					ContinuousFeature continuousFeature = feature.toContinuousFeature(DataType.FLOAT);
+
+					Object value;
+
+					// Happens when missing values are allowed
+					if(threshold == Double.POSITIVE_INFINITY){
+						value = PMMLConstants.POSITIVE_INFINITY;
+					} else
+
+					{
+						value = toFloatThreshold(threshold);
+					}
+
+					leftPredicate = predicateManager.createSimplePredicate(continuousFeature, SimplePredicate.Operator.LESS_OR_EQUAL, value);
+					rightPredicate = predicateManager.createSimplePredicate(continuousFeature, SimplePredicate.Operator.GREATER_THAN, value);
 				}
 
-				leftPredicate = predicateManager.createSimplePredicate(continuousFeature, SimplePredicate.Operator.LESS_OR_EQUAL, value);
-				rightPredicate = predicateManager.createSimplePredicate(continuousFeature, SimplePredicate.Operator.GREATER_THAN, value);
-			}
+				int leftIndex = leftChildren[index];
+				int rightIndex = rightChildren[index];
 
-			int leftIndex = leftChildren[index];
-			int rightIndex = rightChildren[index];
+				if(miningFunction == MiningFunction.CLASSIFICATION){
+					result = new ClassifierNode(null, predicate);
+				} else
 
-			Node leftChild = encodeNode(leftIndex, leftPredicate, miningFunction, leftChildren, rightChildren, features, thresholds, values, missingGoToLeft, leftCategoryManager, predicateManager, scoreDistributionManager, schema);
-			Node rightChild = encodeNode(rightIndex, rightPredicate, miningFunction, leftChildren, rightChildren, features, thresholds, values, missingGoToLeft, rightCategoryManager, predicateManager, scoreDistributionManager, schema);
+				if(miningFunction == MiningFunction.REGRESSION){
+					double value = values[index];
 
-			Node result;
+					result = new BranchNode(value, predicate);
+				} else
+
+				{
+					throw new IllegalArgumentException();
+				}
+
+				result.setId(id);
+
+				// Node identifiers are node indices
+				if(defaultLeft != null){
+					result.setDefaultChild(Integer.valueOf(defaultLeft ? leftIndex : rightIndex));
+				} // End if
+
+				if(prune && (miningFunction == MiningFunction.REGRESSION) && isInvariant(values, index, leftIndex, rightIndex)){
+
+					if(parent != null){
+						parent.addNodes(result);
+					} else
+
+					{
+						root = result;
+					}
+
+					continue;
+				} // End if
+
+				if((size + 2) > capacity){
+					capacity *= 2;
+
+					stackIndices = Arrays.copyOf(stackIndices, capacity);
+					stackPredicates = Arrays.copyOf(stackPredicates, capacity);
+					stackCategoryManagers = Arrays.copyOf(stackCategoryManagers, capacity);
+					stackIndexedCategoryManagers = Arrays.copyOf(stackIndexedCategoryManagers, capacity);
+					stackParents = Arrays.copyOf(stackParents, capacity);
+				}
+
+				// Push the right child first, so that the left child is popped (and appended to the parent) first
+				stackIndices[size] = rightIndex;
+				stackPredicates[size] = rightPredicate;
+				stackCategoryManagers[size] = rightCategoryManager;
+				stackIndexedCategoryManagers[size] = rightIndexedCategoryManager;
+				stackParents[size] = result;
+
+				size++;
+
+				stackIndices[size] = leftIndex;
+				stackPredicates[size] = leftPredicate;
+				stackCategoryManagers[size] = leftCategoryManager;
+				stackIndexedCategoryManagers[size] = leftIndexedCategoryManager;
+				stackParents[size] = result;
 
-			if(miningFunction == MiningFunction.CLASSIFICATION){
-				result = new ClassifierNode(null, predicate);
+				size++;
 			} else
 
-			if(miningFunction == MiningFunction.REGRESSION){
-				double value = values[index];
+			// A leaf node
+			{
+				result = encodeLeafNode(index, predicate, miningFunction, leftChildren.length, values, scoreDistributionManager, schema);
+			} // End if
 
-				result = new BranchNode(value, predicate);
+			if(parent != null){
+				parent.addNodes(result);
 			} else
 
 			{
-				throw new IllegalArgumentException();
+				root = result;
 			}
+		}
 
-			result
-				.setId(id)
-				.addNodes(leftChild, rightChild);
+		return root;
+	}
 
-			if(defaultLeft != null){
-				result.setDefaultChild(defaultLeft ? leftChild.getId() : rightChild.getId());
+	/**
+	 * <p>
+	 * Creates the root bitset of valid categories.
+	 * NaN categories are excluded, unless NaN is the missing value.
+	 * </p>
+	 */
+	static
+	private BitSet createValueSet(ThresholdIndex thresholdIndex, Object missingValue){
+		BitSet result = new BitSet(thresholdIndex.size());
+
+		boolean filterNaN = !ValueUtil.isNaN(missingValue);
+
+		for(int i = 0; i < thresholdIndex.size(); i++){
+
+			if(filterNaN && ValueUtil.isNaN(thresholdIndex.getValue(i))){
+				continue;
 			}
 
-			return result;
-		} else
+			result.set(i);
+		}
 
-		// A leaf node
-		{
-			Node result;
+		return result;
+	}
 
-			if(miningFunction == MiningFunction.CLASSIFICATION){
-				CategoricalLabel categoricalLabel = schema.requireCategoricalLabel();
+	static
+	private boolean isInvariant(double[] values, int index, int leftIndex, int rightIndex){
+		long bits = Double.doubleToLongBits(values[index]);
 
-				double[] leafValues = getRow(values, leftChildren.length, categoricalLabel.size(), index);
+		return (Double.doubleToLongBits(values[leftIndex]) == bits) && (Double.doubleToLongBits(values[rightIndex]) == bits);
+	}
 
-				List<Number> recordCounts = new AbstractList<Number>(){
+	static
+	private Node encodeLeafNode(int index, Predicate predicate, MiningFunction miningFunction, int rows, double[] values, ScoreDistributionManager scoreDistributionManager, Schema schema){
+		Integer id = Integer.valueOf(index);
 
-					@Override
-					public int size(){
-						return leafValues.length;
-					}
+		Node result;
 
-					@Override
-					public Number get(int index){
-						double leafValue = leafValues[index];
+		if(miningFunction == MiningFunction.CLASSIFICATION){
+			CategoricalLabel categoricalLabel = schema.requireCategoricalLabel();
 
-						return ValueUtil.narrow(leafValue);
-					}
-				};
+			double[] leafValues = getRow(values, rows, categoricalLabel.size(), index);
+
+			List<Number> recordCounts = new AbstractList<Number>(){
+
+				@Override
+				public int size(){
+					return leafValues.length;
+				}
 
-				double totalRecordCount = 0d;
+				@Override
+				public Number get(int index){
+					double leafValue = leafValues[index];
 
-				for(Number recordCount : recordCounts){
-					totalRecordCount += recordCount.doubleValue();
+					return ValueUtil.narrow(leafValue);
 				}
+			};
 
-				// XXX
-				int maxIndex = ScoreDistributionManager.indexOfMax(Doubles.asList(leafValues));
+			double totalRecordCount = 0d;
 
-				Object score = categoricalLabel.getValue(maxIndex);
+			for(Number recordCount : recordCounts){
+				totalRecordCount += recordCount.doubleValue();
+			}
 
-				result = new ClassifierNode(score, predicate)
-					.setId(id)
-					.setRecordCount(ValueUtil.narrow(totalRecordCount));
+			// XXX
+			int maxIndex = ScoreDistributionManager.indexOfMax(Doubles.asList(leafValues));
 
-				scoreDistributionManager.addScoreDistributions(result, categoricalLabel.getValues(), recordCounts, null);
-			} else
+			Object score = categoricalLabel.getValue(maxIndex);
 
-			if(miningFunction == MiningFunction.REGRESSION){
-				double value = values[index];
+			result = new ClassifierNode(score, predicate)
+				.setId(id)
+				.setRecordCount(ValueUtil.narrow(totalRecordCount));
 
-				result = new LeafNode(value, predicate)
-					.setId(id);
-			} else
+			scoreDistributionManager.addScoreDistributions(result, categoricalLabel.getValues(), recordCounts, null);
+		} else
 
-			{
-				throw new IllegalArgumentException();
-			}
+		if(miningFunction == MiningFunction.REGRESSION){
+			double value = values[index];
 
-			return result;
+			result = new LeafNode(value, predicate)
+				.setId(id);
+		} else
+
+		{
+			throw new IllegalArgumentException();
 		}
+
+		return result;
 	}
 
 	static
@@ -325,20 +517,34 @@ public class TreeUtil {
 		return toTreeModelSchema(numeric, inputFloat, schema);
 	}
 
+	/**
+	 * <p>
+	 * Resolves the {@link HasTreeOptions#OPTION_PRUNE} option the same way as {@link #configureModel(Estimator, Model)}.
+	 * </p>
+	 */
+	static
+	public <E extends Estimator & HasTreeOptions> boolean isPrune(E estimator){
+		TreeOptions options = resolveOptions(estimator);
+
+		return options.prune;
+	}
+
 	static
 	public <E extends Estimator & HasTreeOptions, M extends Model> M configureModel(E estimator, M model){
-		Boolean allowMissing = (Boolean)estimator.getPMMLOption(HasTreeOptions.OPTION_ALLOW_MISSING, Boolean.FALSE);
-		Boolean winnerId = (Boolean)estimator.getPMMLOption(HasTreeOptions.OPTION_WINNER_ID, Boolean.FALSE);
+		TreeOptions options = resolveOptions(estimator);
 
-		Map<String, Map<Integer, ?>> nodeExtensions = (Map)estimator.getPMMLOption(HasTreeOptions.OPTION_NODE_EXTENSIONS, null);
-		Boolean nodeId = (Boolean)estimator.getPMMLOption(HasTreeOptions.OPTION_NODE_ID, winnerId);
-		Boolean nodeScore = (Boolean)estimator.getPMMLOption(HasTreeOptions.OPTION_NODE_SCORE, winnerId ? Boolean.TRUE : null);
+		Boolean allowMissing = options.allowMissing;
+		Boolean winnerId = options.winnerId;
 
-		boolean fixed = ((nodeExtensions != null) || (nodeId != null && nodeId) || (nodeScore != null && nodeScore));
+		Map<String, Map<Integer, ?>> nodeExtensions = options.nodeExtensions;
+		Boolean nodeId = options.nodeId;
+		Boolean nodeScore = options.nodeScore;
 
-		Boolean compact = (Boolean)estimator.getPMMLOption(HasTreeOptions.OPTION_COMPACT, fixed ? Boolean.FALSE : Boolean.TRUE);
-		Boolean flat = (Boolean)estimator.getPMMLOption(HasTreeOptions.OPTION_FLAT, Boolean.FALSE);
-		Boolean prune = (Boolean)estimator.getPMMLOption(HasTreeOptions.OPTION_PRUNE, fixed ? Boolean.FALSE : Boolean.TRUE);
+		boolean fixed = options.fixed;
+
+		Boolean compact = options.compact;
+		Boolean flat = options.flat;
+		Boolean prune = options.prune;
 
 		if(compact || flat || prune){
 
@@ -356,153 +562,75 @@ public class TreeUtil {
 			encodeNodeId(estimator, model);
 		}
 
-		List<Visitor> visitors = new ArrayList<>();
-
-		if((Boolean.FALSE).equals(allowMissing)){
-			Visitor defaultChildCleaner = new AbstractVisitor(){
-
-				@Override
-				public VisitorAction visit(TreeModel treeModel){
-					treeModel.setMissingValueStrategy(null);
-
-					return super.visit(treeModel);
-				}
-
-				@Override
-				public VisitorAction visit(Node node){
-					Object defaultChild = node.getDefaultChild();
+		Map<String, Visitor> visitors = new LinkedHashMap<>();
 
-					if(defaultChild != null){
-						node.setDefaultChild(null);
-					}
+		// Node-local rewrites are fused into a single traversal.
+		// The compactor requires node identifiers, and clears them itself
+		TreeModelCleaner cleaner = new TreeModelCleaner()
+			.setCleanDefaultChild((Boolean.FALSE).equals(allowMissing))
+			.setCleanId((Boolean.FALSE).equals(nodeId) && !(Boolean.TRUE).equals(compact))
+			.setCleanScore((Boolean.FALSE).equals(nodeScore))
+			.setNodeExtensions(nodeExtensions);
 
-					return super.visit(node);
-				}
-			};
-
-			visitors.add(defaultChildCleaner);
+		if(!cleaner.isEmpty()){
+			visitors.put("cleaner", cleaner);
 		} // End if
 
 		// Prune first, in order to make the tree model smaller for subsequent transformers
 		if((Boolean.TRUE).equals(prune)){
-			visitors.add(new TreeModelPruner());
+			visitors.put("pruner", new TreeModelPruner());
 		} // End if
 
 		if((Boolean.TRUE).equals(compact)){
-			visitors.add(new TreeModelCompactor());
+			visitors.put("compactor", new TreeModelCompactor());
 		} // End if
 
 		if((Boolean.TRUE).equals(flat)){
-			visitors.add(new TreeModelFlattener());
-		} // End if
-
-		if(nodeExtensions != null){
-			Collection<? extends Map.Entry<String, Map<Integer, ?>>> entries = nodeExtensions.entrySet();
-
-			for(Map.Entry<String, Map<Integer, ?>> entry : entries){
-				String name = entry.getKey();
-				Map<Integer, ?> values = entry.getValue();
-
-				Visitor nodeExtender = new AbstractExtender(name){
-
-					private NodeTransformer nodeTransformer = SimplifyingNodeTransformer.INSTANCE;
-
-
-					@Override
-					public VisitorAction visit(TreeModel treeModel){
-						treeModel.setNode(ensureExtensibility(treeModel.getNode()));
-
-						return super.visit(treeModel);
-					}
-
-					@Override
-					public VisitorAction visit(Node node){
-
-						if(node.hasNodes()){
-							List<Node> children = node.getNodes();
-
-							for(ListIterator<Node> childIt = children.listIterator(); childIt.hasNext(); ){
-								childIt.set(ensureExtensibility(childIt.next()));
-							}
-						}
-
-						Object value = getValue(node);
-						if(value != null){
-							value = ScalarUtil.decode(value);
-
-							addExtension((Node & HasExtensions)node, ValueUtil.asString(value));
-						}
-
-						return super.visit(node);
-					}
-
-					private Node ensureExtensibility(Node node){
-
-						if(node instanceof HasExtensions){
-							return node;
-						}
+			visitors.put("flattener", new TreeModelFlattener());
+		}
 
-						Object value = getValue(node);
-						if(value != null){
-							return this.nodeTransformer.toComplexNode(node);
-						}
+		Collection<Map.Entry<String, Visitor>> visitorEntries = visitors.entrySet();
 
-						return node;
-					}
+		for(Map.Entry<String, Visitor> visitorEntry : visitorEntries){
+			String name = visitorEntry.getKey();
+			Visitor visitor = visitorEntry.getValue();
 
-					private Object getValue(Node node){
-						Integer id = ValueUtil.asInteger((Number)node.getId());
+			TreeModelVisitEvent event = new TreeModelVisitEvent();
+			event.begin();
 
-						return values.get(id);
-					}
-				};
-
-				visitors.add(nodeExtender);
+			try(ConversionMetrics.Span span = ConversionMetrics.open("configure", name)){
+				visitor.applyTo(model);
 			}
-		} // End if
 
-		if((Boolean.FALSE).equals(nodeId)){
-			Visitor nodeIdCleaner = new AbstractVisitor(){
-
-				@Override
-				public VisitorAction visit(Node node){
-					node.setId(null);
-
-					return super.visit(node);
-				}
-			};
-
-			visitors.add(nodeIdCleaner);
-		} // End if
+			event.end();
 
-		if((Boolean.FALSE).equals(nodeScore)){
-			Visitor nodeScoreCleaner = new AbstractVisitor(){
+			if(event.shouldCommit()){
+				event.visitor = name;
+				event.commit();
+			}
+		}
 
-				@Override
-				public VisitorAction visit(Node node){
+		return model;
+	}
 
-					if(node.hasNodes()){
-						node.setScore(null);
+	static
+	private <E extends Estimator & HasTreeOptions> TreeOptions resolveOptions(E estimator){
+		TreeOptions options = new TreeOptions();
 
-						if(node.hasScoreDistributions()){
-							List<ScoreDistribution> scoreDistributions = node.getScoreDistributions();
+		options.allowMissing = (Boolean)estimator.getPMMLOption(HasTreeOptions.OPTION_ALLOW_MISSING, Boolean.FALSE);
+		options.winnerId = (Boolean)estimator.getPMMLOption(HasTreeOptions.OPTION_WINNER_ID, Boolean.FALSE);
 
-							scoreDistributions.clear();
-						}
-					}
-
-					return super.visit(node);
-				}
-			};
+		options.nodeExtensions = (Map)estimator.getPMMLOption(HasTreeOptions.OPTION_NODE_EXTENSIONS, null);
+		options.nodeId = (Boolean)estimator.getPMMLOption(HasTreeOptions.OPTION_NODE_ID, options.winnerId);
+		options.nodeScore = (Boolean)estimator.getPMMLOption(HasTreeOptions.OPTION_NODE_SCORE, options.winnerId ? Boolean.TRUE : null);
 
-			visitors.add(nodeScoreCleaner);
-		}
+		options.fixed = ((options.nodeExtensions != null) || (options.nodeId != null && options.nodeId) || (options.nodeScore != null && options.nodeScore));
 
-		for(Visitor visitor : visitors){
-			visitor.applyTo(model);
-		}
+		options.compact = (Boolean)estimator.getPMMLOption(HasTreeOptions.OPTION_COMPACT, options.fixed ? Boolean.FALSE : Boolean.TRUE);
+		options.flat = (Boolean)estimator.getPMMLOption(HasTreeOptions.OPTION_FLAT, Boolean.FALSE);
+		options.prune = (Boolean)estimator.getPMMLOption(HasTreeOptions.OPTION_PRUNE, options.fixed ? Boolean.FALSE : Boolean.TRUE);
 
-		return model;
+		return options;
 	}
 
 	static
@@ -530,6 +658,20 @@ public class TreeUtil {
 					return thresholdFeature;
 				} else
 
+				// Lazily encoded features stay lazy, so that only split features get encoded
+				if(feature instanceof LazyFeature){
+					LazyFeature lazyFeature = (LazyFeature)feature;
+
+					return lazyFeature.transform(this::toFloatFeature);
+				} else
+
+				{
+					return toFloatFeature(feature);
+				}
+			}
+
+			private ContinuousFeature toFloatFeature(Feature feature){
+
 				if(inputFloat != null && inputFloat){
 					ContinuousFeature continuousFeature = feature.toContinuousFeature();
 
@@ -581,6 +723,12 @@ public class TreeUtil {
 					return thresholdFeature;
 				} else
 
+				if(feature instanceof LazyFeature){
+					LazyFeature lazyFeature = (LazyFeature)feature;
+
+					return lazyFeature.transform(continuousFeature -> continuousFeature.toContinuousFeature(DataType.FLOAT));
+				} else
+
 				{
 					ContinuousFeature continuousFeature = feature.toContinuousFeature(DataType.FLOAT);
 
@@ -651,4 +799,32 @@ public class TreeUtil {
 			throw new EstimatorCastException(estimator, Arrays.asList(HasApplyField.class, HasMultiApplyField.class));
 		}
 	}
+
+	/**
+	 * Tree model options, as resolved from the estimator's PMML options.
+	 */
+	static
+	private class TreeOptions {
+
+		private Boolean allowMissing = null;
+
+		private Boolean winnerId = null;
+
+		private Map<String, Map<Integer, ?>> nodeExtensions = null;
+
+		private Boolean nodeId = null;
+
+		private Boolean nodeScore = null;
+
+		/**
+		 * <code>true</code> if the node structure must be kept as-is, because it is referenced by node extensions, node identifiers or node scores.
+		 */
+		private boolean fixed = false;
+
+		private Boolean compact = null;
+
+		private Boolean flat = null;
+
+		private Boolean prune = null;
+	}
 }
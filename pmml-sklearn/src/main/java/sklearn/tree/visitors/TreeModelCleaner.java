@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sklearn.tree.visitors;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+
+import numpy.core.ScalarUtil;
+import org.dmg.pmml.Extension;
+import org.dmg.pmml.HasExtensions;
+import org.dmg.pmml.ScoreDistribution;
+import org.dmg.pmml.VisitorAction;
+import org.dmg.pmml.tree.Node;
+import org.dmg.pmml.tree.NodeTransformer;
+import org.dmg.pmml.tree.SimplifyingNodeTransformer;
+import org.dmg.pmml.tree.TreeModel;
+import org.jpmml.converter.ValueUtil;
+import org.jpmml.model.visitors.AbstractVisitor;
+
+/**
+ * <p>
+ * A Visitor that applies all node-local rewrites in a single traversal.
+ * </p>
+ *
+ * <p>
+ * Node-local rewrites depend on the state of the current node only,
+ * which makes them independent of the tree structure and of one another.
+ * For every node, node extensions are added first (because they are keyed by node identifiers),
+ * and node attributes are cleared second.
+ * </p>
+ */
+public class TreeModelCleaner extends AbstractVisitor {
+
+	private boolean cleanDefaultChild = false;
+
+	private boolean cleanId = false;
+
+	private boolean cleanScore = false;
+
+	private Map<String, Map<Integer, ?>> nodeExtensions = null;
+
+	private NodeTransformer nodeTransformer = SimplifyingNodeTransformer.INSTANCE;
+
+
+	public boolean isEmpty(){
+		return !this.cleanDefaultChild && !this.cleanId && !this.cleanScore && (this.nodeExtensions == null || this.nodeExtensions.isEmpty());
+	}
+
+	@Override
+	public VisitorAction visit(TreeModel treeModel){
+
+		if(this.cleanDefaultChild){
+			treeModel.setMissingValueStrategy(null);
+		} // End if
+
+		if(this.nodeExtensions != null){
+			treeModel.setNode(ensureExtensibility(treeModel.getNode()));
+		}
+
+		return super.visit(treeModel);
+	}
+
+	@Override
+	public VisitorAction visit(Node node){
+
+		if(this.nodeExtensions != null){
+
+			if(node.hasNodes()){
+				List<Node> children = node.getNodes();
+
+				for(ListIterator<Node> childIt = children.listIterator(); childIt.hasNext(); ){
+					childIt.set(ensureExtensibility(childIt.next()));
+				}
+			}
+
+			Integer id = ValueUtil.asInteger((Number)node.getId());
+
+			Collection<? extends Map.Entry<String, Map<Integer, ?>>> entries = this.nodeExtensions.entrySet();
+			for(Map.Entry<String, Map<Integer, ?>> entry : entries){
+				String name = entry.getKey();
+				Map<Integer, ?> values = entry.getValue();
+
+				Object value = values.get(id);
+				if(value != null){
+					value = ScalarUtil.decode(value);
+
+					Extension extension = new Extension()
+						.setName(name)
+						.setValue(ValueUtil.asString(value));
+
+					((HasExtensions<?>)node).addExtensions(extension);
+				}
+			}
+		} // End if
+
+		if(this.cleanDefaultChild){
+			Object defaultChild = node.getDefaultChild();
+
+			if(defaultChild != null){
+				node.setDefaultChild(null);
+			}
+		} // End if
+
+		if(this.cleanId){
+			node.setId(null);
+		} // End if
+
+		if(this.cleanScore){
+
+			if(node.hasNodes()){
+				node.setScore(null);
+
+				if(node.hasScoreDistributions()){
+					List<ScoreDistribution> scoreDistributions = node.getScoreDistributions();
+
+					scoreDistributions.clear();
+				}
+			}
+		}
+
+		return super.visit(node);
+	}
+
+	private Node ensureExtensibility(Node node){
+
+		if(node instanceof HasExtensions){
+			return node;
+		}
+
+		Integer id = ValueUtil.asInteger((Number)node.getId());
+
+		Collection<Map<Integer, ?>> values = this.nodeExtensions.values();
+		for(Map<Integer, ?> value : values){
+
+			if(value.get(id) != null){
+				return this.nodeTransformer.toComplexNode(node);
+			}
+		}
+
+		return node;
+	}
+
+	public boolean getCleanDefaultChild(){
+		return this.cleanDefaultChild;
+	}
+
+	public TreeModelCleaner setCleanDefaultChild(boolean cleanDefaultChild){
+		this.cleanDefaultChild = cleanDefaultChild;
+
+		return this;
+	}
+
+	public boolean getCleanId(){
+		return this.cleanId;
+	}
+
+	public TreeModelCleaner setCleanId(boolean cleanId){
+		this.cleanId = cleanId;
+
+		return this;
+	}
+
+	public boolean getCleanScore(){
+		return this.cleanScore;
+	}
+
+	public TreeModelCleaner setCleanScore(boolean cleanScore){
+		this.cleanScore = cleanScore;
+
+		return this;
+	}
+
+	public Map<String, Map<Integer, ?>> getNodeExtensions(){
+		return this.nodeExtensions;
+	}
+
+	public TreeModelCleaner setNodeExtensions(Map<String, Map<Integer, ?>> nodeExtensions){
+		this.nodeExtensions = nodeExtensions;
+
+		return this;
+	}
+}
@@ -63,6 +63,7 @@ import org.jpmml.converter.WildcardFeature;
 import org.jpmml.converter.mining.MiningModelUtil;
 import org.jpmml.python.Attribute;
 import org.jpmml.python.ClassDictUtil;
+import org.jpmml.sklearn.ConversionMetrics;
 import org.jpmml.sklearn.SkLearnEncoder;
 import org.jpmml.sklearn.SkLearnException;
 import org.slf4j.Logger;
@@ -301,7 +302,7 @@ public class PMMLPipeline extends SkLearnPipeline {
 
 		if(customizations != null && !customizations.isEmpty()){
 
-			try {
+			try(ConversionMetrics.Span span = ConversionMetrics.open("customize", getClassName())){
 				CustomizationUtil.customize(model, customizations);
 			} catch(Exception e){
 				throw new SkLearnException("Failed to customize PMML model", e);
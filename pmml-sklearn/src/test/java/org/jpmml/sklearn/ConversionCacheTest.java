@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConversionCacheTest {
+
+	@TempDir
+	public Path tmpDir;
+
+
+	@Test
+	public void computeKey() throws IOException {
+		File pickleFile = createFile("pipeline.pkl", "pickle");
+
+		Map<String, Object> pmmlOptions = new LinkedHashMap<>();
+		pmmlOptions.put("compact", Boolean.FALSE);
+		pmmlOptions.put("flat", Boolean.TRUE);
+		pmmlOptions.put("prune", null);
+
+		Map<String, Object> reorderedPmmlOptions = new LinkedHashMap<>();
+		reorderedPmmlOptions.put("flat", Boolean.TRUE);
+		reorderedPmmlOptions.put("compact", Boolean.FALSE);
+
+		Set<String> transientOptions = Collections.singleton("parallel");
+
+		String key = ConversionCache.computeKey(pickleFile, pmmlOptions, transientOptions, "1.0");
+
+		assertEquals(64, key.length());
+		assertEquals(key, ConversionCache.computeKey(pickleFile, reorderedPmmlOptions, transientOptions, "1.0"));
+
+		assertNotEquals(key, ConversionCache.computeKey(pickleFile, pmmlOptions, transientOptions, "2.0"));
+
+		reorderedPmmlOptions.put("parallel", Boolean.TRUE);
+
+		assertEquals(key, ConversionCache.computeKey(pickleFile, reorderedPmmlOptions, transientOptions, "1.0"));
+
+		pmmlOptions.put("compact", Boolean.TRUE);
+
+		assertNotEquals(key, ConversionCache.computeKey(pickleFile, pmmlOptions, transientOptions, "1.0"));
+	}
+
+	@Test
+	public void getVersion() throws IOException {
+		String version = ConversionCache.getVersion();
+
+		assertEquals(64, version.length());
+		assertEquals(version, ConversionCache.getVersion());
+	}
+
+	@Test
+	public void getCodeLocations() throws IOException {
+		Set<Path> locations = ConversionCache.getCodeLocations();
+
+		assertFalse(locations.isEmpty());
+
+		for(Path location : locations){
+			assertTrue(Files.exists(location.resolve("META-INF/sklearn2pmml.properties")) || Files.isRegularFile(location));
+		}
+	}
+
+	@Test
+	public void evictedEntry() throws IOException {
+		File file = createFile("first.pmml", "123456");
+
+		assertTrue(ConversionCache.copy(file, new ByteArrayOutputStream()));
+
+		// Simulate an eviction by another thread or process between the lookup and the read
+		Files.delete(file.toPath());
+
+		assertNull(ConversionCache.map(file));
+		assertFalse(ConversionCache.copy(file, new ByteArrayOutputStream()));
+	}
+
+	@Test
+	public void putAndEvict() throws IOException {
+		ConversionCache cache = new ConversionCache((this.tmpDir.resolve("cache")).toFile(), 10L);
+
+		assertNull(cache.get("first"));
+
+		cache.put("first", createFile("first.pmml", "123456"));
+
+		File file = cache.get("first");
+
+		assertNotNull(file);
+		assertEquals("123456", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+
+		assertEquals(6, (cache.map("first")).remaining());
+
+		file.setLastModified(System.currentTimeMillis() - 60 * 1000L);
+
+		cache.put("second", createFile("second.pmml", "7890"));
+
+		assertNotNull(cache.get("first"));
+		assertNotNull(cache.get("second"));
+
+		(cache.get("second")).setLastModified(System.currentTimeMillis() - 60 * 1000L);
+
+		cache.put("third", createFile("third.pmml", "abc"));
+
+		assertNotNull(cache.get("first"));
+		assertNull(cache.get("second"));
+		assertNotNull(cache.get("third"));
+	}
+
+	private File createFile(String name, String content) throws IOException {
+		Path path = this.tmpDir.resolve(name);
+
+		Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+
+		return path.toFile();
+	}
+}
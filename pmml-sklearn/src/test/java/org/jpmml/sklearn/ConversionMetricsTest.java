@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConversionMetricsTest {
+
+	@Test
+	public void open(){
+		assertNull(ConversionMetrics.getCurrent());
+
+		assertSame(ConversionMetrics.Span.NOOP, ConversionMetrics.open("encode", "Dummy"));
+
+		ConversionMetrics metrics = ConversionMetrics.activate();
+
+		try {
+			try(ConversionMetrics.Span outerSpan = ConversionMetrics.open("encode", "Outer")){
+
+				try(ConversionMetrics.Span innerSpan = ConversionMetrics.open("encode", "Inner")){
+					// Ignored
+				}
+			}
+
+			try(ConversionMetrics.Span span = ConversionMetrics.open("configure", "Visitor")){
+				// Ignored
+			}
+		} finally {
+			ConversionMetrics.deactivate();
+		}
+
+		assertNull(ConversionMetrics.getCurrent());
+
+		List<ConversionMetrics.Entry> entries = metrics.getEntries();
+
+		assertEquals(3, entries.size());
+
+		ConversionMetrics.Entry outerEntry = entries.get(0);
+		ConversionMetrics.Entry innerEntry = entries.get(1);
+		ConversionMetrics.Entry visitorEntry = entries.get(2);
+
+		assertEquals("Outer", outerEntry.getName());
+		assertEquals(0, outerEntry.getDepth());
+		assertEquals("Inner", innerEntry.getName());
+		assertEquals(1, innerEntry.getDepth());
+		assertEquals("configure", visitorEntry.getPhase());
+		assertEquals(0, visitorEntry.getDepth());
+
+		assertTrue(outerEntry.getNanos() >= innerEntry.getNanos());
+	}
+}
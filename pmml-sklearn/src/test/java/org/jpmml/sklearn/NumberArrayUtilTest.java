@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class NumberArrayUtilTest {
+
+	@Test
+	public void toIntArray(){
+		assertNull(NumberArrayUtil.toIntArray(null));
+
+		assertArrayEquals(new int[]{1, -1, -2}, NumberArrayUtil.toIntArray(Arrays.asList(1, -1L, -2)));
+		assertArrayEquals(new int[]{1, -1, -2}, NumberArrayUtil.toIntArray(new LinkedList<>(Arrays.asList(1, -1L, -2))));
+	}
+
+	@Test
+	public void toUnsignedIntArray(){
+		assertArrayEquals(new int[]{0, 1, -1}, NumberArrayUtil.toUnsignedIntArray(Arrays.asList(0, 1L, 4294967295L)));
+
+		assertThrows(IllegalArgumentException.class, () -> NumberArrayUtil.toUnsignedIntArray(Arrays.asList(4294967296L)));
+	}
+
+	@Test
+	public void toDoubleArray(){
+		assertNull(NumberArrayUtil.toDoubleArray(null));
+
+		assertArrayEquals(new double[]{1d, 0.5d, -2d}, NumberArrayUtil.toDoubleArray(Arrays.asList(1, 0.5f, -2d)));
+		assertArrayEquals(new double[]{1d, 0.5d, -2d}, NumberArrayUtil.toDoubleArray(new LinkedList<>(Arrays.asList(1, 0.5f, -2d))));
+	}
+}
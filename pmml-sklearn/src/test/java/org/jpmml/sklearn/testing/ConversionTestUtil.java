@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.sklearn.testing;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.dmg.pmml.Header;
+import org.dmg.pmml.PMML;
+import org.jpmml.model.JAXBSerializer;
+import org.jpmml.python.Storage;
+import org.jpmml.python.StorageUtil;
+import org.jpmml.sklearn.Encodable;
+import org.jpmml.sklearn.EncodableUtil;
+import org.jpmml.sklearn.SkLearnUnpickler;
+import org.jpmml.sklearn.SkLearnUtil;
+
+/**
+ * <p>
+ * Utility methods for converting test pickle files with different PMML options,
+ * and comparing the results.
+ * </p>
+ *
+ * <p>
+ * Encoding releases the content of some unpickled objects (eg. tree node arrays),
+ * so every conversion must start from a freshly unpickled object.
+ * </p>
+ */
+public class ConversionTestUtil {
+
+	private ConversionTestUtil(){
+	}
+
+	static
+	public Object loadPickle(String name) throws Exception {
+		URL url = ConversionTestUtil.class.getResource("/pkl/" + name + ".pkl");
+		if(url == null){
+			throw new IllegalArgumentException(name);
+		}
+
+		File file = new File(url.toURI());
+
+		try(Storage storage = StorageUtil.createStorage(file)){
+			SkLearnUnpickler unpickler = new SkLearnUnpickler();
+
+			return unpickler.load(storage);
+		}
+	}
+
+	static
+	public PMML encodePMML(String name, Map<String, ?> options) throws Exception {
+		Object object = loadPickle(name);
+
+		Encodable encodable = EncodableUtil.toEncodable(object);
+
+		if(!options.isEmpty()){
+			EncodableUtil.configure(encodable, options);
+		}
+
+		return EncodableUtil.encodePMML(encodable);
+	}
+
+	/**
+	 * <p>
+	 * Formats the PMML document as pretty XML.
+	 * The header timestamp is cleared, because it differs between conversions.
+	 * </p>
+	 */
+	static
+	public String toString(PMML pmml) throws Exception {
+		Header header = pmml.getHeader();
+
+		if(header != null){
+			header.setTimestamp(null);
+		}
+
+		JAXBSerializer serializer = new JAXBSerializer();
+
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+		serializer.serializePretty(pmml, os);
+
+		return new String(os.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	static {
+		SkLearnUtil.initOnce();
+	}
+}
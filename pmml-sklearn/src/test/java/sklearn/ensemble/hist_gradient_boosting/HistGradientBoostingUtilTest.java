@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sklearn.ensemble.hist_gradient_boosting;
+
+import java.util.Collections;
+
+import org.dmg.pmml.PMML;
+import org.jpmml.sklearn.testing.ConversionTestUtil;
+import org.junit.jupiter.api.Test;
+import sklearn.tree.HasTreeOptions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class HistGradientBoostingUtilTest {
+
+	@Test
+	public void encodeRegressorInParallel() throws Exception {
+		checkParallel("HistGradientBoostingAuto");
+		checkParallel("HistGradientBoostingAutoNA");
+	}
+
+	@Test
+	public void encodeClassifierInParallel() throws Exception {
+		checkParallel("HistGradientBoostingAudit");
+		checkParallel("HistGradientBoostingAuditCat");
+		checkParallel("HistGradientBoostingIris");
+	}
+
+	static
+	private void checkParallel(String name) throws Exception {
+		PMML sequentialPmml = ConversionTestUtil.encodePMML(name, Collections.singletonMap(HasTreeOptions.OPTION_PARALLEL, Boolean.FALSE));
+		PMML parallelPmml = ConversionTestUtil.encodePMML(name, Collections.singletonMap(HasTreeOptions.OPTION_PARALLEL, Boolean.TRUE));
+
+		assertEquals(ConversionTestUtil.toString(sequentialPmml), ConversionTestUtil.toString(parallelPmml));
+	}
+}
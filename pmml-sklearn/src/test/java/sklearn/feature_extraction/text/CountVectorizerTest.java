@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sklearn.feature_extraction.text;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import numpy.core.NDArrayUtil;
+import org.dmg.pmml.DataType;
+import org.dmg.pmml.DerivedField;
+import org.dmg.pmml.MiningField;
+import org.dmg.pmml.Model;
+import org.dmg.pmml.OpType;
+import org.dmg.pmml.PMML;
+import org.dmg.pmml.SimplePredicate;
+import org.dmg.pmml.TransformationDictionary;
+import org.dmg.pmml.VisitorAction;
+import org.dmg.pmml.regression.NumericPredictor;
+import org.jpmml.converter.ContinuousFeature;
+import org.jpmml.converter.ExpressionUtil;
+import org.jpmml.model.visitors.AbstractVisitor;
+import org.jpmml.sklearn.Encodable;
+import org.jpmml.sklearn.EncodableUtil;
+import org.jpmml.sklearn.SkLearnEncoder;
+import org.jpmml.sklearn.SkLearnException;
+import org.jpmml.sklearn.testing.ConversionTestUtil;
+import org.junit.jupiter.api.Test;
+import sklearn.Estimator;
+import sklearn.HasEstimatorEnsemble;
+import sklearn.pipeline.FeatureUnion;
+import sklearn.pipeline.SkLearnPipeline;
+import sklearn2pmml.SkLearn2PMMLFields;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CountVectorizerTest {
+
+	@Test
+	public void resolveTermFeature(){
+		SkLearnEncoder encoder = new SkLearnEncoder();
+
+		TermFeature termFeature = new TermFeature(encoder, "tf(x, term)", DataType.DOUBLE, () -> {
+			DerivedField derivedField = encoder.createDerivedField("tf(x, term)", OpType.CONTINUOUS, DataType.DOUBLE, ExpressionUtil.createConstant(1d));
+
+			return new ContinuousFeature(encoder, derivedField);
+		});
+
+		TermFeature floatTermFeature = termFeature.transform(continuousFeature -> continuousFeature.toContinuousFeature(DataType.FLOAT));
+		TermFeature doubleTermFeature = floatTermFeature.transform(continuousFeature -> continuousFeature.toContinuousFeature(DataType.DOUBLE));
+
+		SkLearnException exception = assertThrows(SkLearnException.class, () -> termFeature.getField());
+
+		assertTrue((exception.getMessage()).contains("tf(x, term)"));
+
+		assertThrows(SkLearnException.class, () -> termFeature.ref());
+		assertThrows(SkLearnException.class, () -> floatTermFeature.ref());
+
+		assertFalse(termFeature.isEncoded());
+		assertFalse(doubleTermFeature.isEncoded());
+
+		ContinuousFeature floatFeature = floatTermFeature.toContinuousFeature();
+
+		assertEquals(DataType.FLOAT, floatFeature.getDataType());
+
+		assertTrue(termFeature.isEncoded());
+		assertTrue(floatTermFeature.isEncoded());
+
+		// Encoded by proxy
+		assertTrue(doubleTermFeature.isEncoded());
+		assertEquals(DataType.DOUBLE, (doubleTermFeature.getField()).getDataType());
+
+		assertSame(termFeature.toContinuousFeature(), termFeature.toContinuousFeature());
+		assertEquals("tf(x, term)", (termFeature.getField()).getName());
+	}
+
+	/**
+	 * <p>
+	 * Without a norm, the TF-IDF vectorizer is a plain term weighting, like the count vectorizer.
+	 * The feature selector keeps a fraction of terms.
+	 * Pruning must keep exactly the terms that the regression model refers to, and must not change the regression model.
+	 * </p>
+	 */
+	@Test
+	public void pruneLogisticRegression() throws Exception {
+		PMML pmml = encodePMML("LogisticRegressionSentiment", false);
+		PMML prunedPmml = encodePMML("LogisticRegressionSentiment", true);
+
+		Set<String> termNames = getTermNames(pmml);
+		Set<String> prunedTermNames = getTermNames(prunedPmml);
+
+		assertTrue(termNames.containsAll(prunedTermNames));
+		assertTrue(prunedTermNames.size() < termNames.size());
+
+		Set<String> predictorNames = getPredictorNames(pmml);
+
+		predictorNames.retainAll(termNames);
+
+		assertFalse(predictorNames.isEmpty());
+		assertEquals(predictorNames, prunedTermNames);
+
+		assertEquals(toString(getTransformationDictionary(pmml, prunedTermNames)), toString(getTransformationDictionary(prunedPmml, prunedTermNames)));
+
+		assertEquals(toString(pmml.getModels()), toString(prunedPmml.getModels()));
+	}
+
+	/**
+	 * <p>
+	 * Random forest models split on a small fraction of terms.
+	 * Pruning must keep exactly those terms, and must not change the trees.
+	 * Feature importances must be kept for exactly those terms.
+	 * </p>
+	 */
+	@Test
+	public void pruneRandomForest() throws Exception {
+		PMML pmml = encodePMML("RandomForestSentiment", false);
+		PMML prunedPmml = encodePMML("RandomForestSentiment", true);
+
+		Set<String> termNames = getTermNames(pmml);
+		Set<String> prunedTermNames = getTermNames(prunedPmml);
+
+		assertTrue(termNames.containsAll(prunedTermNames));
+		assertTrue(prunedTermNames.size() < termNames.size());
+
+		Set<String> splitNames = getSplitNames(pmml);
+
+		splitNames.retainAll(termNames);
+
+		assertEquals(splitNames, prunedTermNames);
+
+		assertEquals(toString(pmml.getModels()), toString(prunedPmml.getModels()));
+
+		PMML importancePmml = encodePMML("RandomForestSentiment", true, true);
+
+		assertEquals(prunedTermNames, getTermNames(importancePmml));
+
+		Set<String> importanceNames = getImportanceNames(importancePmml);
+
+		importanceNames.retainAll(termNames);
+
+		assertEquals(splitNames, importanceNames);
+	}
+
+	static
+	private PMML encodePMML(String name, boolean pruneVocabulary) throws Exception {
+		return encodePMML(name, pruneVocabulary, false);
+	}
+
+	static
+	private PMML encodePMML(String name, boolean pruneVocabulary, boolean featureImportances) throws Exception {
+		SkLearnPipeline pipeline = (SkLearnPipeline)ConversionTestUtil.loadPickle(name);
+
+		FeatureUnion featureUnion = (FeatureUnion)(pipeline.getTransformers()).get(0);
+
+		Object[] transformer = (featureUnion.getTransformerList()).get(0);
+
+		TfidfVectorizer vectorizer = (TfidfVectorizer)transformer[1];
+
+		// The L1 and L2 norms are functions of every term
+		TfidfTransformer tfidfTransformer = vectorizer.getTransformer();
+		tfidfTransformer.put("norm", null);
+
+		if(featureImportances){
+			HasEstimatorEnsemble<?> estimator = (HasEstimatorEnsemble<?>)pipeline.getFinalEstimator();
+
+			for(Estimator memberEstimator : estimator.getEstimators()){
+				List<Double> values = Collections.nCopies(memberEstimator.getNumberOfFeatures(), 1d);
+
+				memberEstimator.put(SkLearn2PMMLFields.PMML_FEATURE_IMPORTANCES, NDArrayUtil.toArray(values));
+			}
+		} // End if
+
+		if(pruneVocabulary){
+			vectorizer.setPMMLOptions(Collections.singletonMap(HasVectorizerOptions.OPTION_PRUNE_VOCABULARY, Boolean.TRUE));
+		}
+
+		Encodable encodable = EncodableUtil.toEncodable(pipeline);
+
+		return EncodableUtil.encodePMML(encodable);
+	}
+
+	static
+	private Set<String> getTermNames(PMML pmml){
+		Set<String> result = new LinkedHashSet<>();
+
+		AbstractVisitor visitor = new AbstractVisitor(){
+
+			@Override
+			public VisitorAction visit(DerivedField derivedField){
+				String name = derivedField.getName();
+
+				if(name.startsWith("tf-idf(") || name.startsWith("tf(")){
+					result.add(name);
+				}
+
+				return super.visit(derivedField);
+			}
+		};
+		visitor.applyTo(pmml);
+
+		return result;
+	}
+
+	static
+	private Set<String> getPredictorNames(PMML pmml){
+		Set<String> result = new LinkedHashSet<>();
+
+		AbstractVisitor visitor = new AbstractVisitor(){
+
+			@Override
+			public VisitorAction visit(NumericPredictor numericPredictor){
+				result.add(numericPredictor.getField());
+
+				return super.visit(numericPredictor);
+			}
+		};
+		visitor.applyTo(pmml);
+
+		return result;
+	}
+
+	static
+	private Set<String> getImportanceNames(PMML pmml){
+		Set<String> result = new LinkedHashSet<>();
+
+		AbstractVisitor visitor = new AbstractVisitor(){
+
+			@Override
+			public VisitorAction visit(MiningField miningField){
+
+				if(miningField.getImportance() != null){
+					result.add(miningField.getName());
+				}
+
+				return super.visit(miningField);
+			}
+		};
+		visitor.applyTo(pmml);
+
+		return result;
+	}
+
+	static
+	private TransformationDictionary getTransformationDictionary(PMML pmml, Set<String> names){
+		TransformationDictionary result = new TransformationDictionary();
+
+		AbstractVisitor visitor = new AbstractVisitor(){
+
+			@Override
+			public VisitorAction visit(DerivedField derivedField){
+
+				if(names.contains(derivedField.getName())){
+					result.addDerivedFields(derivedField);
+				}
+
+				return super.visit(derivedField);
+			}
+		};
+		visitor.applyTo(pmml);
+
+		return result;
+	}
+
+	static
+	private Set<String> getSplitNames(PMML pmml){
+		Set<String> result = new LinkedHashSet<>();
+
+		AbstractVisitor visitor = new AbstractVisitor(){
+
+			@Override
+			public VisitorAction visit(SimplePredicate simplePredicate){
+				result.add(simplePredicate.getField());
+
+				return super.visit(simplePredicate);
+			}
+		};
+		visitor.applyTo(pmml);
+
+		return result;
+	}
+
+	static
+	private String toString(List<Model> models) throws Exception {
+		PMML pmml = new PMML()
+			.addModels(models.toArray(new Model[models.size()]));
+
+		return ConversionTestUtil.toString(pmml);
+	}
+
+	static
+	private String toString(TransformationDictionary transformationDictionary) throws Exception {
+		PMML pmml = new PMML()
+			.setTransformationDictionary(transformationDictionary);
+
+		return ConversionTestUtil.toString(pmml);
+	}
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sklearn.neighbors;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.dmg.pmml.Extension;
+import org.dmg.pmml.PMML;
+import org.dmg.pmml.TableLocator;
+import org.dmg.pmml.nearest_neighbor.InstanceField;
+import org.dmg.pmml.nearest_neighbor.NearestNeighborModel;
+import org.dmg.pmml.nearest_neighbor.TrainingInstances;
+import org.jpmml.sklearn.Encodable;
+import org.jpmml.sklearn.EncodableUtil;
+import org.jpmml.sklearn.OutputContext;
+import org.jpmml.sklearn.evaluator.NeighborSearchTree;
+import org.jpmml.sklearn.testing.ConversionTestUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sklearn.Estimator;
+import sklearn.pipeline.SkLearnPipeline;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KNeighborsUtilTest {
+
+	@TempDir
+	public Path tmpDir;
+
+
+	@Test
+	public void formatCell(){
+		assertEquals("1.5", KNeighborsUtil.formatCell(1.5d));
+		assertEquals("setosa", KNeighborsUtil.formatCell("setosa"));
+
+		assertEquals("\"a,b\"", KNeighborsUtil.formatCell("a,b"));
+		assertEquals("\"say \"\"hi\"\"\"", KNeighborsUtil.formatCell("say \"hi\""));
+		assertEquals("\"two\nlines\"", KNeighborsUtil.formatCell("two\nlines"));
+		assertEquals("\"two\r\nlines\"", KNeighborsUtil.formatCell("two\r\nlines"));
+	}
+
+	@Test
+	public void writeTable() throws Exception {
+		Map<InstanceField, List<?>> data = new LinkedHashMap<>();
+		data.put(new InstanceField("y").setColumn("y"), Arrays.asList("a,b", null, "c"));
+		data.put(new InstanceField("x1").setColumn("x1"), Arrays.asList(1, 2, 3));
+
+		StringWriter writer = new StringWriter();
+
+		KNeighborsUtil.writeTable(data, 3, writer);
+
+		assertEquals("y,x1\n\"a,b\",1\n,2\nc,3\n", writer.toString());
+	}
+
+	@Test
+	public void encodeTableLocator() throws Exception {
+		File output = (this.tmpDir.resolve("KNNIris.pmml")).toFile();
+
+		OutputContext context = OutputContext.activate(output);
+
+		PMML pmml;
+
+		try {
+			pmml = ConversionTestUtil.encodePMML("KNNIris", Collections.singletonMap(HasNeighborsOptions.OPTION_TABLE_LOCATOR, "KNNIris.csv"));
+		} finally {
+			OutputContext.deactivate();
+		}
+
+		File file = (this.tmpDir.resolve("KNNIris.csv")).toFile();
+
+		assertEquals(Collections.singletonList(file), context.getSidecarFiles());
+		assertTrue(file.isFile());
+
+		NearestNeighborModel nearestNeighborModel = (NearestNeighborModel)(pmml.getModels()).get(0);
+
+		TrainingInstances trainingInstances = nearestNeighborModel.getTrainingInstances();
+
+		assertNull(trainingInstances.getInlineTable());
+
+		TableLocator tableLocator = trainingInstances.getTableLocator();
+
+		List<Extension> extensions = tableLocator.getExtensions();
+
+		assertEquals(2, extensions.size());
+
+		assertEquals("location", (extensions.get(0)).getName());
+		assertEquals("KNNIris.csv", (extensions.get(0)).getValue());
+
+		assertEquals("format", (extensions.get(1)).getName());
+		assertEquals("csv", (extensions.get(1)).getValue());
+
+		List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+
+		List<InstanceField> instanceFields = (trainingInstances.getInstanceFields()).getInstanceFields();
+
+		StringBuilder sb = new StringBuilder();
+
+		for(InstanceField instanceField : instanceFields){
+
+			if(sb.length() > 0){
+				sb.append(',');
+			}
+
+			sb.append(instanceField.getColumn());
+		}
+
+		assertEquals(sb.toString(), lines.get(0));
+		assertTrue(lines.size() > 1);
+	}
+
+	@Test
+	public void encodeKDTree() throws Exception {
+		checkSearchTree("KNNIris", "kd_tree");
+	}
+
+	@Test
+	public void encodeBallTree() throws Exception {
+		checkSearchTree("NearestNeighborsWheat", "ball_tree");
+	}
+
+	@Test
+	public void encodeNoSearchTree() throws Exception {
+		PMML pmml = ConversionTestUtil.encodePMML("KNNIris", Collections.emptyMap());
+
+		TrainingInstances trainingInstances = getTrainingInstances(pmml);
+
+		assertNull(NeighborSearchTree.parse(trainingInstances));
+	}
+
+	static
+	private void checkSearchTree(String name, String kind) throws Exception {
+		SkLearnPipeline pipeline = (SkLearnPipeline)ConversionTestUtil.loadPickle(name);
+
+		Estimator estimator = pipeline.getFinalEstimator();
+
+		BinaryTree binaryTree = KNeighborsUtil.getBinaryTree(estimator);
+
+		assertNotNull(binaryTree);
+
+		HasTrainingData hasTrainingData = (HasTrainingData)estimator;
+
+		int[] shape = hasTrainingData.getFitXShape();
+		List<? extends Number> fitX = hasTrainingData.getFitX();
+
+		double[][] data = new double[shape[0]][shape[1]];
+
+		for(int i = 0; i < shape[0]; i++){
+
+			for(int j = 0; j < shape[1]; j++){
+				data[i][j] = (fitX.get(i * shape[1] + j)).doubleValue();
+			}
+		}
+
+		double p = getPower((HasMetric)estimator);
+
+		Encodable encodable = EncodableUtil.toEncodable(pipeline);
+
+		EncodableUtil.configure(encodable, Collections.singletonMap(HasNeighborsOptions.OPTION_SEARCH_TREE, Boolean.TRUE));
+
+		PMML pmml = EncodableUtil.encodePMML(encodable);
+
+		TrainingInstances trainingInstances = getTrainingInstances(pmml);
+
+		Extension extension = null;
+
+		for(Extension trainingInstancesExtension : trainingInstances.getExtensions()){
+
+			if((NeighborSearchTree.EXTENSION_SEARCH_TREE).equals(trainingInstancesExtension.getName())){
+				extension = trainingInstancesExtension;
+			}
+		}
+
+		assertNotNull(extension);
+		assertEquals(kind, extension.getValue());
+
+		int[] idxArray = binaryTree.getIdxArray();
+
+		assertArrayEquals(IntStream.range(0, shape[0]).toArray(), IntStream.of(idxArray).sorted().toArray());
+
+		int numberOfNodes = (binaryTree.getIdxStart()).length;
+
+		assertEquals(numberOfNodes, (binaryTree.getIdxEnd()).length);
+		assertEquals(numberOfNodes, (binaryTree.getIsLeaf()).length);
+		assertEquals(numberOfNodes, (binaryTree.getRadius()).length);
+		assertEquals(("kd_tree").equals(kind) ? 2 : 1, (binaryTree.getNodeBoundsShape())[0]);
+		assertEquals((binaryTree.getNodeBoundsShape())[0] * numberOfNodes * shape[1], (binaryTree.getNodeBounds()).length);
+
+		NeighborSearchTree searchTree = NeighborSearchTree.parse(trainingInstances);
+
+		assertNotNull(searchTree);
+
+		Random random = new Random(42L);
+
+		for(int i = 0; i < shape[0]; i++){
+			double[] x = new double[shape[1]];
+
+			for(int j = 0; j < shape[1]; j++){
+				x[j] = data[i][j] + random.nextGaussian() * 0.1d;
+			}
+
+			// Training data may contain duplicate rows, so compare distances rather than row indices
+			for(int k : new int[]{1, 5}){
+				assertArrayEquals(toDistances(data, bruteForceQuery(data, x, k, p), x, p), toDistances(data, searchTree.query(data, x, k, p), x, p), 1e-12);
+			}
+		}
+	}
+
+	static
+	private TrainingInstances getTrainingInstances(PMML pmml){
+		NearestNeighborModel nearestNeighborModel = (NearestNeighborModel)(pmml.getModels()).get(0);
+
+		return nearestNeighborModel.getTrainingInstances();
+	}
+
+	static
+	private double getPower(HasMetric hasMetric){
+		String metric = hasMetric.getMetric();
+
+		switch(metric){
+			case KNeighborsConstants.METRIC_EUCLIDEAN:
+				return 2d;
+			case KNeighborsConstants.METRIC_MANHATTAN:
+				return 1d;
+			case KNeighborsConstants.METRIC_MINKOWSKI:
+				return hasMetric.getP();
+			default:
+				throw new IllegalArgumentException(metric);
+		}
+	}
+
+	static
+	private int[] bruteForceQuery(double[][] data, double[] x, int k, double p){
+		double[] distances = new double[data.length];
+
+		for(int i = 0; i < data.length; i++){
+			distances[i] = distance(data[i], x, p);
+		}
+
+		return IntStream.range(0, data.length)
+			.boxed()
+			.sorted((left, right) -> Double.compare(distances[left], distances[right]))
+			.limit(k)
+			.mapToInt(Integer::intValue)
+			.toArray();
+	}
+
+	static
+	private double[] toDistances(double[][] data, int[] rows, double[] x, double p){
+		double[] result = new double[rows.length];
+
+		for(int i = 0; i < rows.length; i++){
+			result[i] = distance(data[rows[i]], x, p);
+		}
+
+		return result;
+	}
+
+	static
+	private double distance(double[] left, double[] right, double p){
+		double result = 0d;
+
+		for(int i = 0; i < left.length; i++){
+			result += Math.pow(Math.abs(left[i] - right[i]), p);
+		}
+
+		return result;
+	}
+}
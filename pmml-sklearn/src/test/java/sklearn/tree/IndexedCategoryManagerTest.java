@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sklearn.tree;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class IndexedCategoryManagerTest {
+
+	@Test
+	public void fork(){
+		Map<String, Number> mapping = new LinkedHashMap<>();
+		mapping.put("c", 3d);
+		mapping.put("a", 1d);
+		mapping.put("b", 2d);
+
+		ThresholdIndex thresholdIndex = new ThresholdIndex(mapping);
+
+		assertEquals(3, thresholdIndex.size());
+
+		assertEquals("c", thresholdIndex.getValue(0));
+		assertEquals(3f, thresholdIndex.getKey(0));
+		assertEquals("b", thresholdIndex.getValue(2));
+		assertEquals(2f, thresholdIndex.getKey(2));
+
+		IndexedCategoryManager categoryManager = new IndexedCategoryManager();
+
+		assertNull(categoryManager.getValueSet("x"));
+
+		BitSet valueSet = new BitSet();
+		valueSet.set(1);
+
+		IndexedCategoryManager forkedCategoryManager = categoryManager.fork("x", valueSet);
+
+		assertNull(categoryManager.getValueSet("x"));
+		assertSame(valueSet, forkedCategoryManager.getValueSet("x"));
+		assertNull(forkedCategoryManager.getValueSet("y"));
+	}
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sklearn.tree;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.dmg.pmml.CompoundPredicate;
+import org.dmg.pmml.DataField;
+import org.dmg.pmml.DataType;
+import org.dmg.pmml.MiningFunction;
+import org.dmg.pmml.MiningSchema;
+import org.dmg.pmml.OpType;
+import org.dmg.pmml.PMML;
+import org.dmg.pmml.Predicate;
+import org.dmg.pmml.SimplePredicate;
+import org.dmg.pmml.True;
+import org.dmg.pmml.mining.MiningModel;
+import org.dmg.pmml.mining.Segment;
+import org.dmg.pmml.mining.Segmentation;
+import org.dmg.pmml.tree.BranchNode;
+import org.dmg.pmml.tree.LeafNode;
+import org.dmg.pmml.tree.Node;
+import org.dmg.pmml.tree.TreeModel;
+import org.jpmml.converter.CategoricalFeature;
+import org.jpmml.converter.ContinuousFeature;
+import org.jpmml.converter.Feature;
+import org.jpmml.converter.PredicateManager;
+import org.jpmml.sklearn.SkLearnEncoder;
+import org.jpmml.sklearn.SkLearnException;
+import org.jpmml.sklearn.testing.ConversionTestUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TreeEnsembleUtilTest {
+
+	@Test
+	public void encodeForestInParallel() throws Exception {
+		checkParallel("RandomForestAudit");
+		checkParallel("ExtraTreesAuto");
+	}
+
+	@Test
+	public void encodeGradientBoostingInParallel() throws Exception {
+		checkParallel("GradientBoostingAuto");
+		checkParallel("GradientBoostingIris");
+	}
+
+	@Test
+	public void deduplicateAverageSegments(){
+		MiningModel miningModel = createMiningModel(Segmentation.MultipleModelMethod.AVERAGE);
+
+		TreeEnsembleUtil.deduplicateSegments(createRegressor(true, false), miningModel);
+
+		Segmentation segmentation = miningModel.requireSegmentation();
+
+		assertEquals(Segmentation.MultipleModelMethod.WEIGHTED_AVERAGE, segmentation.getMultipleModelMethod());
+
+		List<Segment> segments = segmentation.requireSegments();
+
+		assertEquals(2, segments.size());
+
+		// The first and the third tree models are identical, even though their predicates were created by different predicate managers
+		assertEquals("1", (segments.get(0)).getId());
+		assertEquals(1.5d + 2.5d, ((segments.get(0)).getWeight()).doubleValue());
+
+		assertEquals("2", (segments.get(1)).getId());
+		assertEquals(2d, ((segments.get(1)).getWeight()).doubleValue());
+	}
+
+	@Test
+	public void deduplicateSumSegments(){
+		MiningModel miningModel = createMiningModel(Segmentation.MultipleModelMethod.SUM);
+
+		TreeEnsembleUtil.deduplicateSegments(createRegressor(true, false), miningModel);
+
+		Segmentation segmentation = miningModel.requireSegmentation();
+
+		assertEquals(Segmentation.MultipleModelMethod.WEIGHTED_SUM, segmentation.getMultipleModelMethod());
+		assertEquals(2, (segmentation.requireSegments()).size());
+	}
+
+	@Test
+	public void deduplicateDisabled(){
+		MiningModel miningModel = createMiningModel(Segmentation.MultipleModelMethod.AVERAGE);
+
+		TreeEnsembleUtil.deduplicateSegments(createRegressor(false, false), miningModel);
+
+		Segmentation segmentation = miningModel.requireSegmentation();
+
+		assertEquals(Segmentation.MultipleModelMethod.AVERAGE, segmentation.getMultipleModelMethod());
+		assertEquals(3, (segmentation.requireSegments()).size());
+	}
+
+	@Test
+	public void deduplicateWinnerId(){
+		MiningModel miningModel = createMiningModel(Segmentation.MultipleModelMethod.AVERAGE);
+
+		assertThrows(SkLearnException.class, () -> TreeEnsembleUtil.deduplicateSegments(createRegressor(true, true), miningModel));
+
+		assertEquals(3, ((miningModel.requireSegmentation()).requireSegments()).size());
+	}
+
+	static
+	private void checkParallel(String name) throws Exception {
+		PMML sequentialPmml = ConversionTestUtil.encodePMML(name, Collections.singletonMap(HasTreeOptions.OPTION_PARALLEL, Boolean.FALSE));
+		PMML parallelPmml = ConversionTestUtil.encodePMML(name, Collections.singletonMap(HasTreeOptions.OPTION_PARALLEL, Boolean.TRUE));
+
+		assertEquals(ConversionTestUtil.toString(sequentialPmml), ConversionTestUtil.toString(parallelPmml));
+	}
+
+	static
+	private TreeRegressor createRegressor(boolean deduplicate, boolean winnerId){
+		TreeRegressor regressor = new TreeRegressor(null, null);
+		regressor.putPMMLOption(HasTreeOptions.OPTION_DEDUPLICATE, deduplicate);
+		regressor.putPMMLOption(HasTreeOptions.OPTION_WINNER_ID, winnerId);
+
+		return regressor;
+	}
+
+	/**
+	 * Segments "1" and "3" hold structurally identical tree models, segment "2" holds a different one.
+	 * Every tree model is encoded using its own predicate manager, the way parallel encoding does it.
+	 */
+	static
+	private MiningModel createMiningModel(Segmentation.MultipleModelMethod multipleModelMethod){
+		SkLearnEncoder encoder = new SkLearnEncoder();
+
+		DataField continuousField = encoder.createDataField("x", OpType.CONTINUOUS, DataType.DOUBLE);
+		DataField categoricalField = encoder.createDataField("y", OpType.CATEGORICAL, DataType.STRING, Arrays.asList("a", "b", "c"));
+
+		Feature continuousFeature = new ContinuousFeature(encoder, continuousField);
+		Feature categoricalFeature = new CategoricalFeature(encoder, categoricalField);
+
+		Segment first = new Segment(True.INSTANCE, createTreeModel(continuousFeature, categoricalFeature, 1d))
+			.setId("1")
+			.setWeight(1.5d);
+
+		Segment second = new Segment(True.INSTANCE, createTreeModel(continuousFeature, categoricalFeature, 2d))
+			.setId("2")
+			.setWeight(2d);
+
+		Segment third = new Segment(True.INSTANCE, createTreeModel(continuousFeature, categoricalFeature, 1d))
+			.setId("3")
+			.setWeight(2.5d);
+
+		MiningModel miningModel = new MiningModel(MiningFunction.REGRESSION, new MiningSchema())
+			.setSegmentation(new Segmentation(multipleModelMethod, Arrays.asList(first, second, third)));
+
+		return miningModel;
+	}
+
+	static
+	private TreeModel createTreeModel(Feature continuousFeature, Feature categoricalFeature, double score){
+		PredicateManager predicateManager = new PredicateManager();
+
+		Predicate simplePredicate = predicateManager.createSimplePredicate(continuousFeature, SimplePredicate.Operator.LESS_OR_EQUAL, 0.5d);
+		Predicate simpleSetPredicate = predicateManager.createSimpleSetPredicate(categoricalFeature, Arrays.asList("a", "c"));
+		Predicate compoundPredicate = new CompoundPredicate(CompoundPredicate.BooleanOperator.SURROGATE, null)
+			.addPredicates(simpleSetPredicate, True.INSTANCE);
+
+		Node root = new BranchNode(null, True.INSTANCE)
+			.addNodes(
+				new LeafNode(score, simplePredicate),
+				new LeafNode(score + 1d, compoundPredicate)
+			);
+
+		return new TreeModel(MiningFunction.REGRESSION, new MiningSchema(), root);
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sklearn.tree;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.dmg.pmml.DataField;
+import org.dmg.pmml.DataType;
+import org.dmg.pmml.MiningFunction;
+import org.dmg.pmml.OpType;
+import org.dmg.pmml.tree.Node;
+import org.dmg.pmml.tree.TreeModel;
+import org.jpmml.converter.ContinuousFeature;
+import org.jpmml.converter.ContinuousLabel;
+import org.jpmml.converter.Feature;
+import org.jpmml.converter.PredicateManager;
+import org.jpmml.converter.Schema;
+import org.jpmml.sklearn.SkLearnEncoder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TreeUtilTest {
+
+	@Test
+	public void encodeDeepTree(){
+		// A degenerate "comb" tree of 10^6 nodes, whose depth exceeds the capacity of the default call stack
+		int splits = 500_000;
+
+		TreeRegressor regressor = createRegressor(createCombTree(splits));
+
+		SkLearnEncoder encoder = new SkLearnEncoder();
+
+		DataField dataField = encoder.createDataField("x", OpType.CONTINUOUS, DataType.FLOAT);
+
+		List<Feature> features = Collections.singletonList(new ContinuousFeature(encoder, dataField));
+
+		Schema schema = new Schema(encoder, new ContinuousLabel(DataType.DOUBLE), features);
+
+		TreeModel treeModel = TreeUtil.encodeTreeModel(regressor, MiningFunction.REGRESSION, new PredicateManager(), null, schema);
+
+		Node node = treeModel.getNode();
+
+		for(int i = 0; i < splits; i++){
+			assertEquals(2 * i, node.getId());
+			assertEquals((double)i, node.getScore());
+
+			List<Node> children = node.getNodes();
+
+			assertEquals(2, children.size());
+
+			Node leftChild = children.get(0);
+			Node rightChild = children.get(1);
+
+			assertEquals(2 * i + 1, leftChild.getId());
+			assertFalse(leftChild.hasNodes());
+
+			assertEquals(2 * i + 2, rightChild.getId());
+
+			node = rightChild;
+		}
+
+		assertEquals(2 * splits, node.getId());
+		assertFalse(node.hasNodes());
+		assertTrue(node.getScore() instanceof Double);
+	}
+
+	@Test
+	public void encodePrunedTree(){
+		Tree tree = createCombTree(2);
+
+		double[] values = tree.getValues();
+
+		// Node 2 splits to nodes 3 and 4 of the same score
+		values[2] = values[3] = values[4] = 1.5d;
+
+		TreeRegressor regressor = createRegressor(tree);
+
+		SkLearnEncoder encoder = new SkLearnEncoder();
+
+		DataField dataField = encoder.createDataField("x", OpType.CONTINUOUS, DataType.FLOAT);
+
+		List<Feature> features = Collections.singletonList(new ContinuousFeature(encoder, dataField));
+
+		Schema schema = new Schema(encoder, new ContinuousLabel(DataType.DOUBLE), features);
+
+		TreeModel treeModel = TreeUtil.encodeTreeModel(regressor, MiningFunction.REGRESSION, true, new PredicateManager(), null, schema);
+
+		Node root = treeModel.getNode();
+
+		List<Node> children = root.getNodes();
+
+		assertEquals(2, children.size());
+
+		Node rightChild = children.get(1);
+
+		assertEquals(2, rightChild.getId());
+		assertEquals(1.5d, rightChild.getScore());
+		assertFalse(rightChild.hasNodes());
+	}
+
+	static
+	private TreeRegressor createRegressor(Tree tree){
+		TreeRegressor regressor = new TreeRegressor(null, null){
+
+			@Override
+			public Tree getTree(){
+				return tree;
+			}
+
+			@Override
+			public boolean hasMissingValueSupport(){
+				return false;
+			}
+		};
+
+		return regressor;
+	}
+
+	/**
+	 * Node <code>2 * i</code> splits to a leaf node <code>2 * i + 1</code> (left) and a split node <code>2 * i + 2</code> (right).
+	 */
+	static
+	private Tree createCombTree(int splits){
+		int size = (2 * splits + 1);
+
+		int[] leftChildren = new int[size];
+		int[] rightChildren = new int[size];
+		int[] features = new int[size];
+		double[] thresholds = new double[size];
+		double[] values = new double[size];
+
+		for(int i = 0; i < size; i++){
+			boolean split = (i % 2 == 0) && (i < 2 * splits);
+
+			leftChildren[i] = split ? (i + 1) : -1;
+			rightChildren[i] = split ? (i + 2) : -1;
+			features[i] = split ? 0 : -2;
+			thresholds[i] = split ? (i / 2) : -2d;
+			values[i] = (i / 2);
+		}
+
+		Tree tree = new Tree("sklearn.tree._tree", "Tree"){
+
+			@Override
+			public int[] getChildrenLeft(){
+				return leftChildren;
+			}
+
+			@Override
+			public int[] getChildrenRight(){
+				return rightChildren;
+			}
+
+			@Override
+			public int[] getFeature(){
+				return features;
+			}
+
+			@Override
+			public double[] getThreshold(){
+				return thresholds;
+			}
+
+			@Override
+			public double[] getValues(){
+				return values;
+			}
+		};
+
+		return tree;
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-SkLearn
+ *
+ * JPMML-SkLearn is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-SkLearn is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-SkLearn.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package sklearn.tree.visitors;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.dmg.pmml.Extension;
+import org.dmg.pmml.HasExtensions;
+import org.dmg.pmml.MiningFunction;
+import org.dmg.pmml.MiningSchema;
+import org.dmg.pmml.True;
+import org.dmg.pmml.tree.ClassifierNode;
+import org.dmg.pmml.tree.Node;
+import org.dmg.pmml.tree.TreeModel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TreeModelCleanerTest {
+
+	@Test
+	public void clean(){
+		Node leftChild = new ClassifierNode(1d, True.INSTANCE)
+			.setId(1);
+
+		Node rightChild = new ClassifierNode(2d, True.INSTANCE)
+			.setId(2);
+
+		Node root = new ClassifierNode(1.5d, True.INSTANCE)
+			.setId(0)
+			.setDefaultChild(1)
+			.addNodes(leftChild, rightChild);
+
+		TreeModel treeModel = new TreeModel(MiningFunction.REGRESSION, new MiningSchema(), root)
+			.setMissingValueStrategy(TreeModel.MissingValueStrategy.DEFAULT_CHILD);
+
+		Map<String, Map<Integer, ?>> nodeExtensions = Collections.singletonMap("impurity", Collections.singletonMap(1, 0.25d));
+
+		TreeModelCleaner cleaner = new TreeModelCleaner()
+			.setCleanDefaultChild(true)
+			.setCleanId(true)
+			.setCleanScore(true)
+			.setNodeExtensions(nodeExtensions);
+
+		assertFalse(cleaner.isEmpty());
+
+		cleaner.applyTo(treeModel);
+
+		assertNull(treeModel.getMissingValueStrategy());
+
+		root = treeModel.getNode();
+
+		assertNull(root.getId());
+		assertNull(root.getScore());
+		assertNull(root.getDefaultChild());
+
+		List<Node> children = root.getNodes();
+
+		leftChild = children.get(0);
+		rightChild = children.get(1);
+
+		assertNull(leftChild.getId());
+		assertEquals(1d, leftChild.getScore());
+
+		assertTrue(leftChild instanceof HasExtensions);
+		assertFalse(rightChild instanceof HasExtensions);
+
+		List<Extension> extensions = ((HasExtensions<?>)leftChild).getExtensions();
+
+		assertEquals(1, extensions.size());
+
+		Extension extension = extensions.get(0);
+
+		assertEquals("impurity", extension.getName());
+		assertEquals("0.25", extension.getValue());
+	}
+
+	@Test
+	public void isEmpty(){
+		TreeModelCleaner cleaner = new TreeModelCleaner();
+
+		assertTrue(cleaner.isEmpty());
+
+		cleaner.setNodeExtensions(Collections.emptyMap());
+
+		assertTrue(cleaner.isEmpty());
+	}
+}